@@ -0,0 +1,93 @@
+package com.porotype.iconfont.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.vaadin.shared.ui.label.ContentMode;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.NativeButton;
+
+/**
+ * The label and button caption building done by
+ * <code>FonticonUI.setDemoText</code>, with the variants coming from a
+ * multiselect as a {@link Set}.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DemoTextBenchmark {
+
+    @Param({ "0", "2", "6" })
+    public int variantCount;
+
+    private Icon icon = Icon.adjust;
+    private Set<IconVariant> variants;
+
+    private Label demoLabel;
+    private Button demoButton;
+    private NativeButton demoNativeButton;
+
+    @Setup
+    public void setup() {
+        variants = Collections.unmodifiableSet(new LinkedHashSet<IconVariant>(
+                Arrays.asList(IconVariant.values()).subList(0, variantCount)));
+        demoLabel = new Label("", ContentMode.HTML);
+        demoButton = new Button();
+        demoButton.setHtmlContentAllowed(true);
+        demoNativeButton = new NativeButton();
+        demoNativeButton.setHtmlContentAllowed(true);
+    }
+
+    /**
+     * Only the strings, as built in <code>setDemoText</code>.
+     */
+    @Benchmark
+    public int captions() {
+        String s = icon.variant(variants);
+        String label = s
+                + " The quick brown fox jumps over the lazy dog.<br/>The quick brown fox jumps over<br/> the lazy dog.";
+        String tooltip = s + " Demo tooltip";
+        String button = s + " Button";
+        String nativeButton = s + " Native Button";
+        return label.length() + tooltip.length() + button.length()
+                + nativeButton.length();
+    }
+
+    /**
+     * The complete <code>setDemoText</code>, including component updates.
+     */
+    @Benchmark
+    public Label setDemoText() {
+        String s = icon.variant(variants);
+        demoLabel
+                .setValue(s
+                        + " The quick brown fox jumps over the lazy dog.<br/>The quick brown fox jumps over<br/> the lazy dog.");
+        demoLabel.setDescription(s + " Demo tooltip");
+        demoButton.setCaption(s + " Button");
+        demoButton.setDescription(s + " Demo tooltip");
+        demoNativeButton.setCaption(s + " Native Button");
+        demoNativeButton.setDescription(s + " Demo tooltip");
+        return demoLabel;
+    }
+}
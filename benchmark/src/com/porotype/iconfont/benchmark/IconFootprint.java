@@ -0,0 +1,73 @@
+package com.porotype.iconfont.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+
+/**
+ * Heap footprint of the {@link Icon} metadata, measured with JOL: the enum
+ * constants and everything they reference, plus the static tables of the
+ * enum. Measured before and after materializing the strings of all icons
+ * ({@link Icon#id()}, {@link Icon#stylename()}, {@link Icon#toString()} and
+ * {@link Icon#glyph()}).
+ *
+ * <pre>
+ * ant footprint
+ * ant footprint -Dfootprint.args=-v     with a histogram by class
+ * </pre>
+ */
+public class IconFootprint {
+
+    public static void main(String[] args) throws Exception {
+        Icon[] icons = Icon.values();
+        print("cold", icons);
+        for (Icon icon : icons) {
+            icon.id();
+            icon.stylename();
+            icon.toString();
+            icon.glyph();
+        }
+        print("materialized", icons);
+        if (args.length > 0 && "-v".equals(args[0])) {
+            // the first line lists the roots
+            String footprint = GraphLayout.parseInstance(roots(icons))
+                    .toFootprint();
+            System.out.println(footprint.substring(footprint
+                    .indexOf('\n') + 1));
+        }
+    }
+
+    private static void print(String state, Icon[] icons) throws Exception {
+        GraphLayout layout = GraphLayout.parseInstance(roots(icons));
+        System.out.printf("%-13s %7d bytes %6d objects %6.1f bytes/icon%n",
+                state, layout.totalSize(), layout.totalCount(),
+                (double) layout.totalSize() / icons.length);
+    }
+
+    /**
+     * The icons and the primitive and string arrays in static fields of the
+     * enum, i.e the metadata tables.
+     */
+    private static Object[] roots(Icon[] icons) throws Exception {
+        List<Object> roots = new ArrayList<Object>();
+        for (Icon icon : icons) {
+            roots.add(icon);
+        }
+        for (Field field : Icon.class.getDeclaredFields()) {
+            Class<?> type = field.getType();
+            if (Modifier.isStatic(field.getModifiers())
+                    && type.isArray()
+                    && (type.getComponentType().isPrimitive() || type
+                            .getComponentType() == String.class)) {
+                field.setAccessible(true);
+                roots.add(field.get(null));
+            }
+        }
+        return roots.toArray();
+    }
+}
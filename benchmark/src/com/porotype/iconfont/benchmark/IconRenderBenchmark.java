@@ -0,0 +1,101 @@
+package com.porotype.iconfont.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * Rendering hot paths of {@link Icon}: single icon, 0-6 variants, and all
+ * icons.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IconRenderBenchmark {
+
+    /**
+     * Variants used, the first {@link #variantCount} are applied.
+     */
+    private static final IconVariant[] VARIANTS = { IconVariant.SIZE_2X,
+            IconVariant.FIXED_WIDTH, IconVariant.SPIN, IconVariant.BORDER,
+            IconVariant.PULL_LEFT, IconVariant.FLIP_VERTICAL };
+
+    @Param({ "thumbs_o_up", "try_FI" })
+    public String iconName;
+
+    @Param({ "0", "1", "2", "3", "4", "5", "6" })
+    public int variantCount;
+
+    private Icon icon;
+    private IconVariant[] variants;
+    private long mask;
+    private StringBuilder buffer;
+
+    @Setup
+    public void setup() {
+        icon = Icon.valueOf(iconName);
+        variants = Arrays.copyOf(VARIANTS, variantCount);
+        mask = IconVariant.mask(variants);
+        buffer = new StringBuilder(64 * 1024);
+    }
+
+    @Benchmark
+    public String iconToString() {
+        return icon.toString();
+    }
+
+    @Benchmark
+    public String iconStylename() {
+        return icon.stylename();
+    }
+
+    @Benchmark
+    public String iconVariant() {
+        return icon.variant(variants);
+    }
+
+    @Benchmark
+    public String iconVariantMask() {
+        return icon.variant(mask);
+    }
+
+    @Benchmark
+    public StringBuilder iconAppendTo() {
+        buffer.setLength(0);
+        return icon.appendTo(buffer, mask);
+    }
+
+    @Benchmark
+    public void allIconsVariant(Blackhole bh) {
+        for (Icon i : Icon.values()) {
+            bh.consume(i.variant(variants));
+        }
+    }
+
+    @Benchmark
+    public StringBuilder allIconsAppendTo() {
+        buffer.setLength(0);
+        for (Icon i : Icon.values()) {
+            i.appendTo(buffer, mask);
+        }
+        return buffer;
+    }
+}
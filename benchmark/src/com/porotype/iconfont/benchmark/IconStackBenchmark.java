@@ -0,0 +1,65 @@
+package com.porotype.iconfont.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.porotype.iconfont.IconStack;
+
+/**
+ * A table refresh of stacked status badges: {@link IconStack} lookup and
+ * rendering versus concatenating the nested markup by hand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IconStackBenchmark {
+
+    private static final int CELLS = 5000;
+    private static final Icon[] STATUS = { Icon.check, Icon.exclamation,
+            Icon.times, Icon.question };
+
+    private final long inverse = IconVariant.INVERSE.mask();
+    private StringBuilder buffer;
+
+    @Setup
+    public void setup() {
+        buffer = new StringBuilder(CELLS * 128);
+    }
+
+    @Benchmark
+    public StringBuilder stackOf() {
+        buffer.setLength(0);
+        for (int i = 0; i < CELLS; i++) {
+            IconStack.of(Icon.circle, STATUS[i & 3], inverse).appendTo(
+                    buffer, 0);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder handConcatenated() {
+        buffer.setLength(0);
+        for (int i = 0; i < CELLS; i++) {
+            buffer.append("<span class=\"" + IconVariant.STACK + "\">"
+                    + Icon.circle.variant(IconVariant.STACK_2X)
+                    + STATUS[i & 3].variant(IconVariant.STACK_1X,
+                            IconVariant.INVERSE) + "</span>");
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,69 @@
+package com.porotype.iconfont.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vaadin.fonticon.FonticonUI;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.porotype.iconfont.IconRef;
+import com.vaadin.ui.UI;
+
+/**
+ * Serialized size of the demo {@link FonticonUI} with its session, as
+ * replicated in a cluster, and of icon references kept as HTML versus as
+ * {@link IconRef}s.
+ *
+ * <pre>
+ * ant session-size
+ * </pre>
+ */
+public class SessionSize {
+
+    private static final int REFS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        UIHarness harness = new UIHarness();
+        UI ui = harness.init(FonticonUI.class);
+        byte[] session = serialize(ui.getSession());
+        harness.close(ui);
+        System.out.printf("FonticonUI session %7d bytes, %d icon HTML strings%n",
+                session.length, count(session, "<i class=\""));
+
+        Icon[] icons = Icon.values();
+        List<String> html = new ArrayList<String>(REFS);
+        List<IconRef> refs = new ArrayList<IconRef>(REFS);
+        for (int i = 0; i < REFS; i++) {
+            Icon icon = icons[i * 7 % icons.length];
+            // distinct instances, as when concatenated into captions
+            html.add(new String(icon.variant(IconVariant.SIZE_LARGE)));
+            refs.add(IconRef.of(icon, IconVariant.SIZE_LARGE));
+        }
+        System.out.printf("%d icons as HTML    %7d bytes%n", REFS,
+                serialize((Serializable) html).length);
+        System.out.printf("%d icons as IconRef %7d bytes%n", REFS,
+                serialize((Serializable) refs).length);
+    }
+
+    private static byte[] serialize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(object);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static int count(byte[] bytes, String s) throws IOException {
+        String stream = new String(bytes, "ISO-8859-1");
+        int count = 0;
+        for (int i = stream.indexOf(s); i >= 0; i = stream.indexOf(s, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,262 @@
+package com.porotype.iconfont.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.json.JSONException;
+import org.vaadin.fonticon.FonticonUI;
+
+import com.vaadin.server.DefaultDeploymentConfiguration;
+import com.vaadin.server.LegacyCommunicationManager;
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.server.communication.UidlWriter;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+import com.vaadin.ui.UI;
+
+/**
+ * Runs a UI without a browser or servlet container: a session on a servlet
+ * service that is never deployed, and a mocked {@link VaadinRequest}, so
+ * {@link UI#doInit(VaadinRequest, int, String)} and the first UIDL response
+ * run as in a real request.
+ * <p>
+ * {@link #main(String[])} measures the init cost of {@link FonticonUI}: init
+ * latency, component count, first UIDL response size and retained heap per
+ * UI, with the given number of concurrent threads:
+ * </p>
+ *
+ * <pre>
+ * ant init-cost -Dinit.args="4 200"     4 threads, 200 UIs
+ * </pre>
+ */
+public class UIHarness {
+
+    private static final Map<String, String> PARAMETERS = new HashMap<String, String>();
+    static {
+        PARAMETERS.put("v-loc", "http://localhost:8080/");
+        PARAMETERS.put("v-cw", "1280");
+        PARAMETERS.put("v-ch", "800");
+        PARAMETERS.put("v-wn", "harness");
+    }
+
+    private final VaadinService service;
+
+    public UIHarness() throws ServiceException {
+        Properties parameters = new Properties();
+        parameters.setProperty("productionMode", "true");
+        service = new VaadinServletService(new VaadinServlet(),
+                new DefaultDeploymentConfiguration(UIHarness.class,
+                        parameters));
+    }
+
+    /**
+     * Creates and initializes a UI in a new session. The session stays
+     * locked, and current for this thread, until {@link #close(UI)}.
+     *
+     * @param uiClass
+     * @return the initialized UI
+     */
+    public UI init(Class<? extends UI> uiClass) throws Exception {
+        VaadinSession session = new HarnessSession(service);
+        session.setCommunicationManager(new LegacyCommunicationManager(
+                session));
+        VaadinSession.setCurrent(session);
+        session.lock();
+        UI ui = uiClass.newInstance();
+        ui.setSession(session);
+        UI.setCurrent(ui);
+        ui.doInit(request(), session.getNextUIid(), null);
+        session.addUI(ui);
+        return ui;
+    }
+
+    /**
+     * Unlocks the session of the UI and clears the current instances.
+     */
+    public void close(UI ui) {
+        ui.getSession().unlock();
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    /**
+     * Writes the first UIDL response of the UI, with all connectors.
+     *
+     * @param ui
+     *            an initialized UI, with its session locked
+     * @return the UIDL JSON
+     */
+    public static String uidl(UI ui) throws IOException, JSONException {
+        StringWriter json = new StringWriter();
+        new UidlWriter().write(ui, json, true, false);
+        return json.toString();
+    }
+
+    /**
+     * Counts the components of the UI, including the UI itself.
+     */
+    public static int componentCount(Component component) {
+        int count = 1;
+        if (component instanceof HasComponents) {
+            for (Component child : (HasComponents) component) {
+                count += componentCount(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Session with its own lock, as there is no HTTP session to hold one
+     */
+    @SuppressWarnings("serial")
+    private static class HarnessSession extends VaadinSession {
+
+        private final Lock lock = new ReentrantLock();
+
+        HarnessSession(VaadinService service) {
+            super(service);
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+
+    /**
+     * A request with the parameters of the vaadinBootstrap.js init request,
+     * and <code>null</code>, 0 or false for everything else.
+     */
+    static VaadinRequest request() {
+        return (VaadinRequest) Proxy.newProxyInstance(
+                VaadinRequest.class.getClassLoader(),
+                new Class<?>[] { VaadinRequest.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        String name = method.getName();
+                        if ("getParameter".equals(name)) {
+                            return PARAMETERS.get(args[0]);
+                        } else if ("getParameterMap".equals(name)) {
+                            Map<String, String[]> map = new HashMap<String, String[]>();
+                            for (Map.Entry<String, String> e : PARAMETERS
+                                    .entrySet()) {
+                                map.put(e.getKey(),
+                                        new String[] { e.getValue() });
+                            }
+                            return map;
+                        } else if ("getLocale".equals(name)) {
+                            return java.util.Locale.ENGLISH;
+                        }
+                        Class<?> type = method.getReturnType();
+                        if (type == boolean.class) {
+                            return false;
+                        } else if (type == int.class) {
+                            return 0;
+                        } else if (type == long.class) {
+                            return 0L;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        final int inits = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        final UIHarness harness = new UIHarness();
+
+        // warm up, and the per UI numbers
+        UI first = harness.init(FonticonUI.class);
+        int components = componentCount(first);
+        int uidl = uidl(first).getBytes("UTF-8").length;
+        harness.close(first);
+        for (int i = 0; i < 50; i++) {
+            harness.close(harness.init(FonticonUI.class));
+        }
+        System.out.printf("components %d, first UIDL response %d bytes%n",
+                components, uidl);
+
+        // latency, with the UIs kept for the heap delta
+        final List<UI> uis = Collections.synchronizedList(new ArrayList<UI>(
+                inits));
+        long heapBefore = usedHeap();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+        final int perThread = inits / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(new Callable<long[]>() {
+                @Override
+                public long[] call() throws Exception {
+                    long[] latencies = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        long begin = System.nanoTime();
+                        UI ui = harness.init(FonticonUI.class);
+                        latencies[i] = System.nanoTime() - begin;
+                        harness.close(ui);
+                        uis.add(ui);
+                    }
+                    return latencies;
+                }
+            }));
+        }
+        long[] latencies = new long[perThread * threads];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(results.get(t).get(), 0, latencies, t
+                    * perThread, perThread);
+        }
+        long wall = System.nanoTime() - start;
+        executor.shutdown();
+        long heap = usedHeap() - heapBefore;
+
+        Arrays.sort(latencies);
+        System.out.printf(
+                "%d inits on %d threads: %.1f inits/s, latency mean %.0f us, p50 %.0f us, p99 %.0f us%n",
+                latencies.length, threads, latencies.length * 1e9 / wall,
+                mean(latencies) / 1e3,
+                latencies[latencies.length / 2] / 1e3,
+                latencies[latencies.length * 99 / 100] / 1e3);
+        System.out.printf("retained heap %d bytes per UI%n",
+                heap / uis.size());
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,157 @@
+package com.porotype.iconfont;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.vaadin.server.ExternalResource;
+import com.vaadin.server.Resource;
+import com.vaadin.server.ThemeResource;
+
+/**
+ * Maps Font Awesome asset paths, e.g <code>css/font-awesome.min.css</code>,
+ * to the content-hashed files written by
+ * {@link com.porotype.iconfont.build.IconAssets}, e.g
+ * <code>css/font-awesome.1a2b3c4d.min.css</code>. As the name changes with
+ * the content, the files can be cached forever.
+ * <p>
+ * The manifest is read once, at startup, for a location the files are served
+ * from; {@link #resolve(Resource)} then maps stylesheets and fonts under that
+ * location to the hashed files. {@link FontAwesomeServlet} does this for its
+ * own root if it contains a manifest; otherwise use
+ * {@link FontAwesome#setManifest(AssetManifest)}, e.g for a CDN:
+ * </p>
+ *
+ * <pre>
+ * FontAwesome.setManifest(AssetManifest.read(in, &quot;https://static.example.com/font-awesome/&quot;));
+ * FontAwesome.setDefaultLocation(new ExternalResource(
+ *         &quot;https://static.example.com/font-awesome/css/font-awesome.min.css&quot;));
+ * </pre>
+ */
+@SuppressWarnings("serial")
+public final class AssetManifest implements Serializable {
+
+    /**
+     * Name of the manifest file, in the directory of the assets
+     */
+    public static final String FILE = "font-awesome.manifest";
+
+    private final String location;
+    private final Map<String, String> files;
+    private final Set<String> hashed;
+
+    private AssetManifest(String location, Map<String, String> files) {
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.files = files;
+        hashed = new HashSet<String>(files.values());
+    }
+
+    /**
+     * Reads a manifest: a properties file of paths relative to its
+     * directory, each mapped to the hashed path.
+     *
+     * @param in
+     *            the manifest, closed when read
+     * @param location
+     *            URL or theme resource id of the manifest directory, e.g
+     *            <code>/myapp/font-awesome/</code>
+     * @return the manifest
+     * @throws IOException
+     */
+    public static AssetManifest read(InputStream in, String location)
+            throws IOException {
+        Properties properties = new Properties();
+        try {
+            properties.load(new InputStreamReader(in, "UTF-8"));
+        } finally {
+            in.close();
+        }
+        Map<String, String> files = new HashMap<String, String>();
+        for (String path : properties.stringPropertyNames()) {
+            files.put(path, properties.getProperty(path));
+        }
+        return new AssetManifest(location, Collections.unmodifiableMap(files));
+    }
+
+    /**
+     * Gets the location the paths are relative to, ending with
+     * <code>/</code>.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Maps a URL under the {@link #getLocation() location} to the hashed
+     * file; the query, e.g <code>?v=4.2.0</code>, is dropped, as the hash
+     * already identifies the version.
+     *
+     * @param url
+     * @return the URL of the hashed file, or the given URL if not in the
+     *         manifest
+     */
+    public String resolve(String url) {
+        if (!url.startsWith(location)) {
+            return url;
+        }
+        int end = url.length();
+        int fragment = url.indexOf('#', location.length());
+        if (fragment >= 0) {
+            end = fragment;
+        }
+        int query = url.indexOf('?', location.length());
+        if (query >= 0 && query < end) {
+            end = query;
+        }
+        String file = files.get(url.substring(location.length(), end));
+        if (file == null) {
+            return url;
+        }
+        return location + file + (fragment >= 0 ? url.substring(fragment) : "");
+    }
+
+    /**
+     * Maps an {@link ExternalResource} or {@link ThemeResource} under the
+     * {@link #getLocation() location} to the hashed file.
+     *
+     * @param resource
+     * @return the resource for the hashed file, or the given resource if not
+     *         in the manifest
+     */
+    public Resource resolve(Resource resource) {
+        if (resource instanceof ExternalResource) {
+            String url = ((ExternalResource) resource).getURL();
+            String resolved = resolve(url);
+            return resolved.equals(url) ? resource : new ExternalResource(
+                    resolved, resource.getMIMEType());
+        } else if (resource instanceof ThemeResource) {
+            String id = ((ThemeResource) resource).getResourceId();
+            String resolved = resolve(id);
+            return resolved.equals(id) ? resource : new ThemeResource(resolved);
+        }
+        return resource;
+    }
+
+    /**
+     * Gets the hashed path for a path relative to the location.
+     *
+     * @return the hashed path, or <code>null</code> if not in the manifest
+     */
+    String get(String path) {
+        return files.get(path);
+    }
+
+    /**
+     * Tests if the path, relative to the location, is a hashed file.
+     */
+    boolean isHashed(String path) {
+        return hashed.contains(path);
+    }
+}
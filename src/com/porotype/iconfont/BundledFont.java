@@ -0,0 +1,47 @@
+package com.porotype.iconfont;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The Font Awesome TrueType font from the <code>org.webjars:font-awesome</code>
+ * jar, loaded on first use, for rendering icons on the server.
+ */
+final class BundledFont {
+
+    private static final String PATH = FontAwesomeServlet.WEBJAR_ROOT
+            + "fonts/fontawesome-webfont.ttf";
+
+    private static final Font FONT = load();
+
+    private BundledFont() {
+    }
+
+    static Font get() {
+        return FONT;
+    }
+
+    private static Font load() {
+        InputStream in = BundledFont.class.getClassLoader()
+                .getResourceAsStream(PATH);
+        if (in == null) {
+            throw new IllegalStateException(PATH
+                    + " not found, add org.webjars:font-awesome to the classpath");
+        }
+        try {
+            return Font.createFont(Font.TRUETYPE_FONT, in);
+        } catch (FontFormatException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
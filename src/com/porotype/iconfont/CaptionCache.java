@@ -0,0 +1,309 @@
+package com.porotype.iconfont;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * Thread safe cache of composed icon + text captions, so identical captions
+ * are one shared instance across all sessions:
+ * <code>button.setCaption(CaptionCache.get().caption(Icon.save, 0, " Save"));</code>
+ * <p>
+ * The cache is split in stripes by key hash, each with its own lock. When a
+ * stripe is full, the least frequently used captions are evicted: each entry
+ * counts its hits (up to {@link #MAX_FREQUENCY}), and a clock hand evicts the
+ * first entry without hits, decrementing the counts it passes.
+ * </p>
+ */
+public final class CaptionCache {
+
+    /**
+     * Saturation point of the per entry hit counts
+     */
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int STRIPES = 16;
+
+    private static final int STRIPE_SHIFT = Integer
+            .numberOfLeadingZeros(STRIPES - 1);
+
+    private static final CaptionCache shared = new CaptionCache(16 * 1024);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * Gets the JVM wide cache.
+     *
+     * @return the shared cache
+     */
+    public static CaptionCache get() {
+        return shared;
+    }
+
+    /**
+     * Creates a cache of the given maximum size.
+     *
+     * @param maximumSize
+     *            maximum number of captions
+     */
+    public CaptionCache(int maximumSize) {
+        if (maximumSize < STRIPES) {
+            throw new IllegalArgumentException("Maximum size must be at least "
+                    + STRIPES);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maximumSize / STRIPES);
+        }
+    }
+
+    /**
+     * Gets the icon HTML followed by the text.
+     *
+     * @param icon
+     * @param text
+     *            HTML appended as is, e.g <code>" Save"</code>
+     * @return the shared caption
+     */
+    public String caption(Icon icon, String text) {
+        return caption(icon, 0, text);
+    }
+
+    /**
+     * Gets the icon HTML with the {@link IconVariant}s in the given bitmask,
+     * followed by the text.
+     *
+     * @param icon
+     * @param mask
+     *            variant bitmask
+     * @param text
+     *            HTML appended as is, e.g <code>" Save"</code>
+     * @return the shared caption
+     */
+    public String caption(Icon icon, long mask, String text) {
+        IconVariant.checkMask(mask);
+        if (text == null) {
+            text = "";
+        }
+        if (IconUsage.enabled) {
+            IconUsage.record(icon, mask);
+        }
+        int hash = Key.hash(icon, mask, text);
+        return stripes[stripe(hash)].get(icon, mask, text, hash);
+    }
+
+    /**
+     * The stripe of a key hash: the top bits of a multiplicative (Fibonacci)
+     * hash. Not the low bits, which {@link HashMap} uses for the bucket, or
+     * the keys of each stripe would all share 1/{@value #STRIPES} of its
+     * buckets.
+     */
+    static int stripe(int hash) {
+        return (hash * 0x9e3779b9) >>> STRIPE_SHIFT;
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts so far.
+     *
+     * @return the statistics
+     */
+    public Stats getStats() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+                misses += stripe.misses;
+                evictions += stripe.evictions;
+                size += stripe.map.size();
+            }
+        }
+        return new Stats(hits, misses, evictions, size);
+    }
+
+    /**
+     * Removes all captions; the statistics are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.map.clear();
+                Arrays.fill(stripe.entries, null);
+                stripe.hand = 0;
+            }
+        }
+    }
+
+    /**
+     * Cache statistics.
+     */
+    @SuppressWarnings("serial")
+    public static final class Stats implements Serializable {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * Gets the number of cached captions.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the share of lookups that were hits.
+         *
+         * @return 0..1, 0 if there were no lookups
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", evictions="
+                    + evictions + ", size=" + size;
+        }
+    }
+
+    private static class Key {
+
+        Icon icon;
+        long mask;
+        String text;
+        int hash;
+
+        Key(Icon icon, long mask, String text, int hash) {
+            this.icon = icon;
+            this.mask = mask;
+            this.text = text;
+            this.hash = hash;
+        }
+
+        static int hash(Icon icon, long mask, String text) {
+            return (text.hashCode() * 31 + (int) (mask ^ mask >>> 32)) * 31
+                    + icon.ordinal();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return icon == other.icon && mask == other.mask
+                    && text.equals(other.text);
+        }
+    }
+
+    private static class Entry {
+
+        final Key key;
+        final String caption;
+        int frequency;
+
+        Entry(Key key, String caption) {
+            this.key = key;
+            this.caption = caption;
+        }
+    }
+
+    /**
+     * A part of the cache with its own lock, map and clock
+     */
+    private static class Stripe {
+
+        final Map<Key, Entry> map;
+        /**
+         * Clock slots; null when free
+         */
+        final Entry[] entries;
+        /**
+         * Reused for lookups, under the lock
+         */
+        final Key probe = new Key(null, 0, null, 0);
+        int hand;
+        long hits;
+        long misses;
+        long evictions;
+
+        Stripe(int capacity) {
+            map = new HashMap<Key, Entry>(capacity * 4 / 3 + 1);
+            entries = new Entry[capacity];
+        }
+
+        synchronized String get(Icon icon, long mask, String text, int hash) {
+            probe.icon = icon;
+            probe.mask = mask;
+            probe.text = text;
+            probe.hash = hash;
+            Entry entry = map.get(probe);
+            probe.text = null;
+            if (entry != null) {
+                hits++;
+                if (entry.frequency < MAX_FREQUENCY) {
+                    entry.frequency++;
+                }
+                return entry.caption;
+            }
+            misses++;
+            entry = new Entry(new Key(icon, mask, text, hash), icon.fragment(
+                    mask).concat(text));
+            entries[freeSlot()] = entry;
+            map.put(entry.key, entry);
+            return entry.caption;
+        }
+
+        /**
+         * Finds a free slot, evicting an entry if full.
+         */
+        private int freeSlot() {
+            while (true) {
+                Entry entry = entries[hand];
+                int slot = hand;
+                hand = (hand + 1) % entries.length;
+                if (entry == null) {
+                    return slot;
+                }
+                if (entry.frequency == 0) {
+                    map.remove(entry.key);
+                    evictions++;
+                    return slot;
+                }
+                entry.frequency--;
+            }
+        }
+    }
+}
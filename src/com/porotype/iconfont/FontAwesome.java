@@ -1,8 +1,18 @@
 package com.porotype.iconfont;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.porotype.iconfont.shared.IconVariantStyles;
 import com.vaadin.server.ExternalResource;
 import com.vaadin.server.Page;
 import com.vaadin.server.Resource;
+import com.vaadin.ui.UI;
 
 /**
  * Enables you to easily use the <a
@@ -13,8 +23,11 @@ import com.vaadin.server.Resource;
  * <p>
  * By default, {@link #load()} uses a CDN is used to host the font and CSS
  * "from the cloud", so you can very quickly get up-and-running. <br/>
+ * Without outside access, map {@link FontAwesomeServlet} to serve them from
+ * the classpath instead. <br/>
  * For production, you might want to generate an optimized font w/o unused
- * icons, for instance using the <a href="http://icomoon.io/app/">IconMoon</a>
+ * icons, using {@link com.porotype.iconfont.build.IconSubset} on your compiled
+ * classes, or for instance using the <a href="http://icomoon.io/app/">IconMoon</a>
  * app. Deploy your icon-font (for instance in your theme) and point
  * {@link FontAwesome} to the CSS with {@link #load(Resource)}, e.g
  * <code>FontAwesome.load(new ThemeResource("font-awesome/css/font-awesome.min.css"));</code>
@@ -29,10 +42,76 @@ import com.vaadin.server.Resource;
  */
 public class FontAwesome {
 
+    /**
+     * Stylename setting the FontAwesome font, for components showing
+     * {@link Icon#glyph()}s as plain text. Other text in the component falls
+     * back to the browser default font.
+     */
+    public static final String GLYPH_STYLENAME = "fa-glyph";
+
+    /**
+     * The {@link #GLYPH_STYLENAME}, {@link IconSprite#STYLENAME} and
+     * {@link IconColumnGenerator} cell style rules, added by
+     * {@link #load(Resource)}
+     */
+    static final String EXTRA_CSS = "." + GLYPH_STYLENAME
+            + "{font-family:FontAwesome}" + IconSprite.CSS
+            + IconColumnGenerator.CSS;
+
     public static final String CDN = "//cdnjs.cloudflare.com/ajax/libs/font-awesome/4.2.0/css/font-awesome.min.css";
 
+    private static volatile Resource defaultLocation = new ExternalResource(
+            CDN);
+
+    private static volatile AssetManifest manifest;
+
+    /**
+     * Loads the FontAwesome CSS from the default location, the {@link #CDN}
+     * unless changed with {@link #setDefaultLocation(Resource)}.
+     */
     public static void load() {
-        load(new ExternalResource(CDN));
+        load(defaultLocation);
+    }
+
+    /**
+     * Sets the location {@link #load()} loads the CSS from, e.g
+     * {@link FontAwesomeServlet}, which sets itself as default on init.
+     * 
+     * @param fontAwesomeCss
+     */
+    public static void setDefaultLocation(Resource fontAwesomeCss) {
+        defaultLocation = fontAwesomeCss;
+    }
+
+    /**
+     * Gets the location {@link #load()} loads the CSS from.
+     * 
+     * @return the default location
+     */
+    public static Resource getDefaultLocation() {
+        return defaultLocation;
+    }
+
+    /**
+     * Sets the manifest of content-hashed assets, written by
+     * {@link com.porotype.iconfont.build.IconAssets}, that
+     * {@link #load(Resource)} resolves stylesheets with;
+     * {@link FontAwesomeServlet} sets its own on init.
+     * 
+     * @param manifest
+     *            the manifest, or <code>null</code> for none
+     */
+    public static void setManifest(AssetManifest manifest) {
+        FontAwesome.manifest = manifest;
+    }
+
+    /**
+     * Gets the manifest {@link #load(Resource)} resolves stylesheets with.
+     * 
+     * @return the manifest, or <code>null</code> if none
+     */
+    public static AssetManifest getManifest() {
+        return manifest;
     }
 
     /**
@@ -42,16 +121,74 @@ public class FontAwesome {
      * FontAwesome.load(new ThemeResource("font-awesome/css/font-awesome.min.css"));
      * </code>
      * </p>
+     * <p>
+     * The CSS is added once per UI; further calls, and calls for a CSS already
+     * in the bootstrap page (see {@link FontAwesomeBootstrapListener}), do
+     * nothing.
+     * </p>
+     * <p>
+     * With a {@link #setManifest(AssetManifest) manifest}, a stylesheet in it
+     * is loaded from its content-hashed file instead.
+     * </p>
      * 
      * @param fontAwesomeCss
      */
     public static void load(Resource fontAwesomeCss) {
-        Page.getCurrent().getStyles().add(fontAwesomeCss);
+        AssetManifest manifest = FontAwesome.manifest;
+        if (manifest != null) {
+            fontAwesomeCss = manifest.resolve(fontAwesomeCss);
+        }
+        UI ui = UI.getCurrent();
+        if (ui != null && ui.getSession() != null
+                && !LoadTracker.markLoaded(ui, fontAwesomeCss)) {
+            return;
+        }
+        Page.Styles styles = Page.getCurrent().getStyles();
+        styles.add(fontAwesomeCss);
+        styles.add(EXTRA_CSS);
+    }
+
+    /**
+     * Finds the {@link Icon} with the given Java name, e.g
+     * <code>thumbs_o_up</code> or <code>try_FI</code>. Unlike
+     * {@link Icon#valueOf(String)}, the reserved word suffix may be omitted,
+     * and unknown names return <code>null</code>.
+     * 
+     * @param name
+     * @return the icon, or <code>null</code> if not found
+     */
+    public static Icon byName(CharSequence name) {
+        return IconIndex.byName(name);
+    }
+
+    /**
+     * Finds the {@link Icon} with the given CSS name, e.g
+     * <code>thumbs-o-up</code>, <code>fa-thumbs-o-up</code> or
+     * <code>fa fa-thumbs-o-up</code>.
+     * 
+     * @param stylename
+     * @return the icon, or <code>null</code> if not found
+     */
+    public static Icon byStylename(CharSequence stylename) {
+        return IconIndex.byStylename(stylename);
+    }
+
+    /**
+     * Gets all {@link Icon}s (aliases) using the given codepoint, e.g
+     * <code>0xf1c5</code> for {@link Icon#file_photo_o},
+     * {@link Icon#file_picture_o} and {@link Icon#file_image_o}.
+     * 
+     * @param codepoint
+     * @return the icons in declaration order, or an empty set
+     */
+    public static Set<Icon> byCodepoint(int codepoint) {
+        return IconIndex.byCodepoint(codepoint);
     }
 
     /**
      * Icon variant; multiple can be used, but all combinations do not make
-     * sense.
+     * sense. The stylenames, in declaration order, are in
+     * {@link IconVariantStyles}.
      * 
      * @author marc
      * 
@@ -60,103 +197,179 @@ public class FontAwesome {
         /**
          * A larger icon
          */
-        SIZE_LARGE("fa-lg"),
+        SIZE_LARGE,
         /**
          * 2x sized icon
          */
-        SIZE_2X("fa-2x"),
+        SIZE_2X,
         /**
          * 3x sized icon
          */
-        SIZE_3X("fa-3x"),
+        SIZE_3X,
         /**
          * 4x sized icon
          */
-        SIZE_4X("fa-4x"),
+        SIZE_4X,
         /**
          * 5x sized icon
          */
-        SIZE_5X("fa-5x"),
+        SIZE_5X,
         /**
          * Use fa-fw to set icons at a fixed width. 
          * Great to use when variable icon widths throw off alignment. 
          * Especially useful in things like nav lists.
          */
-        FIXED_WIDTH("fa-fw"),
+        FIXED_WIDTH,
         /**
          * Use fa-ul and fa-li to easily replace default bullets in unordered lists.
          */
-        LIST("fa-li"),
+        LIST,
         /**
          * Spinning (animated) icon. Most useful with icons such as
          * {@link Icon#spinner}.
          */
-        SPIN("fa-spin"),
+        SPIN,
         /**
          * Adds a border around the icon
          */
-        BORDER("fa-border"),
+        BORDER,
         /**
          * For e.g for easy pull quotes or article graphics, with larger icons
          * next to text.
          */
-        PULL_LEFT("pull-left"),
+        PULL_LEFT,
         /**
          * For e.g for easy pull quotes or article graphics, with larger icons
          * next to text.
          */
-        PULL_RIGHT("pull-right"),
+        PULL_RIGHT,
         /**
          * To arbitrarily rotate and flip icons, use the fa-rotate-* and fa-flip-* classes.
          */
-        ROTATE_90("fa-rotate-90"),
+        ROTATE_90,
         /**
          * 
          */
-        ROTATE_180("fa-rotate-180"),
+        ROTATE_180,
         /**
          * 
          */
-        ROTATE_270("fa-rotate-270"),
+        ROTATE_270,
         /**
          * 
          */
-        FLIP_HORIZONTAL("fa-flip-horizontal"),
+        FLIP_HORIZONTAL,
         /**
          * 
          */
-        FLIP_VERTICAL("fa-flip-vertical"),
+        FLIP_VERTICAL,
         /**
          * To stack multiple icons, use the fa-stack class on the parent, 
          * the fa-stack-1x for the regularly sized icon, and fa-stack-2x for the larger icon. 
          * fa-inverse can be used as an alternative icon color. 
          * You can even throw larger icon classes on the parent to get further control of sizing.
          */
-        STACK("fa-stack"),
+        STACK,
         /**
          * a-stack-1x for the regularly sized icon
          */
-        STACK_1X("fa-stack-1x"),
+        STACK_1X,
         /**
          * fa-stack-2x for the larger icon
          */
-        STACK_2X("fa-stack-2x"),
+        STACK_2X,
         /**
          * fa-inverse can be used as an alternative icon color
          */
-        INVERSE("fa-inverse");
-        
+        INVERSE;
+
+        /**
+         * Bitmask with all {@link IconVariant}s set.
+         */
+        public static final long ALL = (1L << values().length) - 1;
+
+        static {
+            if (values().length != IconVariantStyles.count()) {
+                throw new IllegalStateException(values().length
+                        + " variants, but " + IconVariantStyles.count()
+                        + " stylenames");
+            }
+        }
 
         private final String stylename;
 
-        IconVariant(String stylename) {
-            this.stylename = stylename;
+        IconVariant() {
+            // ordinal() is set before the constructor runs
+            stylename = IconVariantStyles.get(ordinal());
         }
 
         @Override
         public String toString() {
             return stylename;
         }
+
+        /**
+         * Gets the bit used for this {@link IconVariant} in variant bitmasks.
+         *
+         * @return the variant bit
+         */
+        public long mask() {
+            return 1L << ordinal();
+        }
+
+        /**
+         * Combines the given {@link IconVariant}s into a bitmask, suitable for
+         * {@link Icon#variant(long)}.
+         *
+         * @param variants
+         * @return variant bitmask
+         */
+        public static long mask(IconVariant... variants) {
+            long mask = 0;
+            for (IconVariant v : variants) {
+                mask |= v.mask();
+            }
+            return mask;
+        }
+
+        /**
+         * Combines the given {@link IconVariant}s into a bitmask, suitable for
+         * {@link Icon#variant(long)}.
+         *
+         * @param variants
+         * @return variant bitmask
+         */
+        public static long mask(Collection<IconVariant> variants) {
+            long mask = 0;
+            for (IconVariant v : variants) {
+                mask |= v.mask();
+            }
+            return mask;
+        }
+
+        /**
+         * Gets the {@link IconVariant}s set in the given bitmask.
+         *
+         * @param mask
+         * @return the variants, in declaration order
+         */
+        public static EnumSet<IconVariant> of(long mask) {
+            checkMask(mask);
+            EnumSet<IconVariant> variants = EnumSet.noneOf(IconVariant.class);
+            for (IconVariant v : values()) {
+                if ((mask & v.mask()) != 0) {
+                    variants.add(v);
+                }
+            }
+            return variants;
+        }
+
+        static void checkMask(long mask) {
+            if ((mask & ~ALL) != 0) {
+                throw new IllegalArgumentException("Invalid variant mask: 0x"
+                        + Long.toHexString(mask));
+            }
+        }
     }
 
     /**
@@ -165,7 +378,8 @@ public class FontAwesome {
      * The basic {@link #toString()} will produce HTML representing the regular
      * icon.<br/>
      * For variants, {@link #variant(IconVariant...)} can be used with one or
-     * more {@link IconVariant}s.<br/>
+     * more {@link IconVariant}s, or {@link #variant(long)} with a precomputed
+     * {@link IconVariant#mask(IconVariant...) variant bitmask}.<br/>
      * For custom cases, the stylename is available via {@link #stylename()}.
      * </p>
      * <p>
@@ -177,566 +391,582 @@ public class FontAwesome {
      * 
      */
     public enum Icon {
-    	glass("&#xf000;"),
-    	music("&#xf001;"),
-    	search("&#xf002;"),
-    	envelope_o("&#xf003;"),
-    	heart("&#xf004;"),
-    	star("&#xf005;"),
-    	star_o("&#xf006;"),
-    	user("&#xf007;"),
-    	film("&#xf008;"),
-    	th_large("&#xf009;"),
-    	th("&#xf00a;"),
-    	th_list("&#xf00b;"),
-    	check("&#xf00c;"),
-    	remove("&#xf00d;"),
-    	close("&#xf00d;"),
-    	times("&#xf00d;"),
-    	search_plus("&#xf00e;"),
-    	search_minus("&#xf010;"),
-    	power_off("&#xf011;"),
-    	signal("&#xf012;"),
-    	gear("&#xf013;"),
-    	cog("&#xf013;"),
-    	trash_o("&#xf014;"),
-    	home("&#xf015;"),
-    	file_o("&#xf016;"),
-    	clock_o("&#xf017;"),
-    	road("&#xf018;"),
-    	download("&#xf019;"),
-    	arrow_circle_o_down("&#xf01a;"),
-    	arrow_circle_o_up("&#xf01b;"),
-    	inbox("&#xf01c;"),
-    	play_circle_o("&#xf01d;"),
-    	rotate_right("&#xf01e;"),
-    	repeat("&#xf01e;"),
-    	refresh("&#xf021;"),
-    	list_alt("&#xf022;"),
-    	lock("&#xf023;"),
-    	flag("&#xf024;"),
-    	headphones("&#xf025;"),
-    	volume_off("&#xf026;"),
-    	volume_down("&#xf027;"),
-    	volume_up("&#xf028;"),
-    	qrcode("&#xf029;"),
-    	barcode("&#xf02a;"),
-    	tag("&#xf02b;"),
-    	tags("&#xf02c;"),
-    	book("&#xf02d;"),
-    	bookmark("&#xf02e;"),
-    	print("&#xf02f;"),
-    	camera("&#xf030;"),
-    	font("&#xf031;"),
-    	bold("&#xf032;"),
-    	italic("&#xf033;"),
-    	text_height("&#xf034;"),
-    	text_width("&#xf035;"),
-    	align_left("&#xf036;"),
-    	align_center("&#xf037;"),
-    	align_right("&#xf038;"),
-    	align_justify("&#xf039;"),
-    	list("&#xf03a;"),
-    	dedent("&#xf03b;"),
-    	outdent("&#xf03b;"),
-    	indent("&#xf03c;"),
-    	video_camera("&#xf03d;"),
-    	photo("&#xf03e;"),
-    	image("&#xf03e;"),
-    	picture_o("&#xf03e;"),
-    	pencil("&#xf040;"),
-    	map_marker("&#xf041;"),
-    	adjust("&#xf042;"),
-    	tint("&#xf043;"),
-    	edit("&#xf044;"),
-    	pencil_square_o("&#xf044;"),
-    	share_square_o("&#xf045;"),
-    	check_square_o("&#xf046;"),
-    	arrows("&#xf047;"),
-    	step_backward("&#xf048;"),
-    	fast_backward("&#xf049;"),
-    	backward("&#xf04a;"),
-    	play("&#xf04b;"),
-    	pause("&#xf04c;"),
-    	stop("&#xf04d;"),
-    	forward("&#xf04e;"),
-    	fast_forward("&#xf050;"),
-    	step_forward("&#xf051;"),
-    	eject("&#xf052;"),
-    	chevron_left("&#xf053;"),
-    	chevron_right("&#xf054;"),
-    	plus_circle("&#xf055;"),
-    	minus_circle("&#xf056;"),
-    	times_circle("&#xf057;"),
-    	check_circle("&#xf058;"),
-    	question_circle("&#xf059;"),
-    	info_circle("&#xf05a;"),
-    	crosshairs("&#xf05b;"),
-    	times_circle_o("&#xf05c;"),
-    	check_circle_o("&#xf05d;"),
-    	ban("&#xf05e;"),
-    	arrow_left("&#xf060;"),
-    	arrow_right("&#xf061;"),
-    	arrow_up("&#xf062;"),
-    	arrow_down("&#xf063;"),
-    	mail_forward("&#xf064;"),
-    	share("&#xf064;"),
-    	expand("&#xf065;"),
-    	compress("&#xf066;"),
-    	plus("&#xf067;"),
-    	minus("&#xf068;"),
-    	asterisk("&#xf069;"),
-    	exclamation_circle("&#xf06a;"),
-    	gift("&#xf06b;"),
-    	leaf("&#xf06c;"),
-    	fire("&#xf06d;"),
-    	eye("&#xf06e;"),
-    	eye_slash("&#xf070;"),
-    	warning("&#xf071;"),
-    	exclamation_triangle("&#xf071;"),
-    	plane("&#xf072;"),
-    	calendar("&#xf073;"),
-    	random("&#xf074;"),
-    	comment("&#xf075;"),
-    	magnet("&#xf076;"),
-    	chevron_up("&#xf077;"),
-    	chevron_down("&#xf078;"),
-    	retweet("&#xf079;"),
-    	shopping_cart("&#xf07a;"),
-    	folder("&#xf07b;"),
-    	folder_open("&#xf07c;"),
-    	arrows_v("&#xf07d;"),
-    	arrows_h("&#xf07e;"),
-    	bar_chart_o("&#xf080;"),
-    	bar_chart("&#xf080;"),
-    	twitter_square("&#xf081;"),
-    	facebook_square("&#xf082;"),
-    	camera_retro("&#xf083;"),
-    	key("&#xf084;"),
-    	gears("&#xf085;"),
-    	cogs("&#xf085;"),
-    	comments("&#xf086;"),
-    	thumbs_o_up("&#xf087;"),
-    	thumbs_o_down("&#xf088;"),
-    	star_half("&#xf089;"),
-    	heart_o("&#xf08a;"),
-    	sign_out("&#xf08b;"),
-    	linkedin_square("&#xf08c;"),
-    	thumb_tack("&#xf08d;"),
-    	external_link("&#xf08e;"),
-    	sign_in("&#xf090;"),
-    	trophy("&#xf091;"),
-    	github_square("&#xf092;"),
-    	upload("&#xf093;"),
-    	lemon_o("&#xf094;"),
-    	phone("&#xf095;"),
-    	square_o("&#xf096;"),
-    	bookmark_o("&#xf097;"),
-    	phone_square("&#xf098;"),
-    	twitter("&#xf099;"),
-    	facebook("&#xf09a;"),
-    	github("&#xf09b;"),
-    	unlock("&#xf09c;"),
-    	credit_card("&#xf09d;"),
-    	rss("&#xf09e;"),
-    	hdd_o("&#xf0a0;"),
-    	bullhorn("&#xf0a1;"),
-    	bell("&#xf0f3;"),
-    	certificate("&#xf0a3;"),
-    	hand_o_right("&#xf0a4;"),
-    	hand_o_left("&#xf0a5;"),
-    	hand_o_up("&#xf0a6;"),
-    	hand_o_down("&#xf0a7;"),
-    	arrow_circle_left("&#xf0a8;"),
-    	arrow_circle_right("&#xf0a9;"),
-    	arrow_circle_up("&#xf0aa;"),
-    	arrow_circle_down("&#xf0ab;"),
-    	globe("&#xf0ac;"),
-    	wrench("&#xf0ad;"),
-    	tasks("&#xf0ae;"),
-    	filter("&#xf0b0;"),
-    	briefcase("&#xf0b1;"),
-    	arrows_alt("&#xf0b2;"),
-    	group("&#xf0c0;"),
-    	users("&#xf0c0;"),
-    	chain("&#xf0c1;"),
-    	link("&#xf0c1;"),
-    	cloud("&#xf0c2;"),
-    	flask("&#xf0c3;"),
-    	cut("&#xf0c4;"),
-    	scissors("&#xf0c4;"),
-    	copy("&#xf0c5;"),
-    	files_o("&#xf0c5;"),
-    	paperclip("&#xf0c6;"),
-    	save("&#xf0c7;"),
-    	floppy_o("&#xf0c7;"),
-    	square("&#xf0c8;"),
-    	navicon("&#xf0c9;"),
-    	reorder("&#xf0c9;"),
-    	bars("&#xf0c9;"),
-    	list_ul("&#xf0ca;"),
-    	list_ol("&#xf0cb;"),
-    	strikethrough("&#xf0cc;"),
-    	underline("&#xf0cd;"),
-    	table("&#xf0ce;"),
-    	magic("&#xf0d0;"),
-    	truck("&#xf0d1;"),
-    	pinterest("&#xf0d2;"),
-    	pinterest_square("&#xf0d3;"),
-    	google_plus_square("&#xf0d4;"),
-    	google_plus("&#xf0d5;"),
-    	money("&#xf0d6;"),
-    	caret_down("&#xf0d7;"),
-    	caret_up("&#xf0d8;"),
-    	caret_left("&#xf0d9;"),
-    	caret_right("&#xf0da;"),
-    	columns("&#xf0db;"),
-    	unsorted("&#xf0dc;"),
-    	sort("&#xf0dc;"),
-    	sort_down("&#xf0dd;"),
-    	sort_desc("&#xf0dd;"),
-    	sort_up("&#xf0de;"),
-    	sort_asc("&#xf0de;"),
-    	envelope("&#xf0e0;"),
-    	linkedin("&#xf0e1;"),
-    	rotate_left("&#xf0e2;"),
-    	undo("&#xf0e2;"),
-    	legal("&#xf0e3;"),
-    	gavel("&#xf0e3;"),
-    	dashboard("&#xf0e4;"),
-    	tachometer("&#xf0e4;"),
-    	comment_o("&#xf0e5;"),
-    	comments_o("&#xf0e6;"),
-    	flash("&#xf0e7;"),
-    	bolt("&#xf0e7;"),
-    	sitemap("&#xf0e8;"),
-    	umbrella("&#xf0e9;"),
-    	paste("&#xf0ea;"),
-    	clipboard("&#xf0ea;"),
-    	lightbulb_o("&#xf0eb;"),
-    	exchange("&#xf0ec;"),
-    	cloud_download("&#xf0ed;"),
-    	cloud_upload("&#xf0ee;"),
-    	user_md("&#xf0f0;"),
-    	stethoscope("&#xf0f1;"),
-    	suitcase("&#xf0f2;"),
-    	bell_o("&#xf0a2;"),
-    	coffee("&#xf0f4;"),
-    	cutlery("&#xf0f5;"),
-    	file_text_o("&#xf0f6;"),
-    	building_o("&#xf0f7;"),
-    	hospital_o("&#xf0f8;"),
-    	ambulance("&#xf0f9;"),
-    	medkit("&#xf0fa;"),
-    	fighter_jet("&#xf0fb;"),
-    	beer("&#xf0fc;"),
-    	h_square("&#xf0fd;"),
-    	plus_square("&#xf0fe;"),
-    	angle_double_left("&#xf100;"),
-    	angle_double_right("&#xf101;"),
-    	angle_double_up("&#xf102;"),
-    	angle_double_down("&#xf103;"),
-    	angle_left("&#xf104;"),
-    	angle_right("&#xf105;"),
-    	angle_up("&#xf106;"),
-    	angle_down("&#xf107;"),
-    	desktop("&#xf108;"),
-    	laptop("&#xf109;"),
-    	tablet("&#xf10a;"),
-    	mobile_phone("&#xf10b;"),
-    	mobile("&#xf10b;"),
-    	circle_o("&#xf10c;"),
-    	quote_left("&#xf10d;"),
-    	quote_right("&#xf10e;"),
-    	spinner("&#xf110;"),
-    	circle("&#xf111;"),
-    	mail_reply("&#xf112;"),
-    	reply("&#xf112;"),
-    	github_alt("&#xf113;"),
-    	folder_o("&#xf114;"),
-    	folder_open_o("&#xf115;"),
-    	smile_o("&#xf118;"),
-    	frown_o("&#xf119;"),
-    	meh_o("&#xf11a;"),
-    	gamepad("&#xf11b;"),
-    	keyboard_o("&#xf11c;"),
-    	flag_o("&#xf11d;"),
-    	flag_checkered("&#xf11e;"),
-    	terminal("&#xf120;"),
-    	code("&#xf121;"),
-    	mail_reply_all("&#xf122;"),
-    	reply_all("&#xf122;"),
-    	star_half_empty("&#xf123;"),
-    	star_half_full("&#xf123;"),
-    	star_half_o("&#xf123;"),
-    	location_arrow("&#xf124;"),
-    	crop("&#xf125;"),
-    	code_fork("&#xf126;"),
-    	unlink("&#xf127;"),
-    	chain_broken("&#xf127;"),
-    	question("&#xf128;"),
-    	info("&#xf129;"),
-    	exclamation("&#xf12a;"),
-    	superscript("&#xf12b;"),
-    	subscript("&#xf12c;"),
-    	eraser("&#xf12d;"),
-    	puzzle_piece("&#xf12e;"),
-    	microphone("&#xf130;"),
-    	microphone_slash("&#xf131;"),
-    	shield("&#xf132;"),
-    	calendar_o("&#xf133;"),
-    	fire_extinguisher("&#xf134;"),
-    	rocket("&#xf135;"),
-    	maxcdn("&#xf136;"),
-    	chevron_circle_left("&#xf137;"),
-    	chevron_circle_right("&#xf138;"),
-    	chevron_circle_up("&#xf139;"),
-    	chevron_circle_down("&#xf13a;"),
-    	html5("&#xf13b;"),
-    	css3("&#xf13c;"),
-    	anchor("&#xf13d;"),
-    	unlock_alt("&#xf13e;"),
-    	bullseye("&#xf140;"),
-    	ellipsis_h("&#xf141;"),
-    	ellipsis_v("&#xf142;"),
-    	rss_square("&#xf143;"),
-    	play_circle("&#xf144;"),
-    	ticket("&#xf145;"),
-    	minus_square("&#xf146;"),
-    	minus_square_o("&#xf147;"),
-    	level_up("&#xf148;"),
-    	level_down("&#xf149;"),
-    	check_square("&#xf14a;"),
-    	pencil_square("&#xf14b;"),
-    	external_link_square("&#xf14c;"),
-    	share_square("&#xf14d;"),
-    	compass("&#xf14e;"),
-    	toggle_down("&#xf150;"),
-    	caret_square_o_down("&#xf150;"),
-    	toggle_up("&#xf151;"),
-    	caret_square_o_up("&#xf151;"),
-    	toggle_right("&#xf152;"),
-    	caret_square_o_right("&#xf152;"),
-    	euro("&#xf153;"),
-    	eur("&#xf153;"),
-    	gbp("&#xf154;"),
-    	dollar("&#xf155;"),
-    	usd("&#xf155;"),
-    	rupee("&#xf156;"),
-    	inr("&#xf156;"),
-    	cny("&#xf157;"),
-    	rmb("&#xf157;"),
-    	yen("&#xf157;"),
-    	jpy("&#xf157;"),
-    	ruble("&#xf158;"),
-    	rouble("&#xf158;"),
-    	rub("&#xf158;"),
-    	won("&#xf159;"),
-    	krw("&#xf159;"),
-    	bitcoin("&#xf15a;"),
-    	btc("&#xf15a;"),
-    	file("&#xf15b;"),
-    	file_text("&#xf15c;"),
-    	sort_alpha_asc("&#xf15d;"),
-    	sort_alpha_desc("&#xf15e;"),
-    	sort_amount_asc("&#xf160;"),
-    	sort_amount_desc("&#xf161;"),
-    	sort_numeric_asc("&#xf162;"),
-    	sort_numeric_desc("&#xf163;"),
-    	thumbs_up("&#xf164;"),
-    	thumbs_down("&#xf165;"),
-    	youtube_square("&#xf166;"),
-    	youtube("&#xf167;"),
-    	xing("&#xf168;"),
-    	xing_square("&#xf169;"),
-    	youtube_play("&#xf16a;"),
-    	dropbox("&#xf16b;"),
-    	stack_overflow("&#xf16c;"),
-    	instagram("&#xf16d;"),
-    	flickr("&#xf16e;"),
-    	adn("&#xf170;"),
-    	bitbucket("&#xf171;"),
-    	bitbucket_square("&#xf172;"),
-    	tumblr("&#xf173;"),
-    	tumblr_square("&#xf174;"),
-    	long_arrow_down("&#xf175;"),
-    	long_arrow_up("&#xf176;"),
-    	long_arrow_left("&#xf177;"),
-    	long_arrow_right("&#xf178;"),
-    	apple("&#xf179;"),
-    	windows("&#xf17a;"),
-    	android("&#xf17b;"),
-    	linux("&#xf17c;"),
-    	dribbble("&#xf17d;"),
-    	skype("&#xf17e;"),
-    	foursquare("&#xf180;"),
-    	trello("&#xf181;"),
-    	female("&#xf182;"),
-    	male("&#xf183;"),
-    	gittip("&#xf184;"),
-    	sun_o("&#xf185;"),
-    	moon_o("&#xf186;"),
-    	archive("&#xf187;"),
-    	bug("&#xf188;"),
-    	vk("&#xf189;"),
-    	weibo("&#xf18a;"),
-    	renren("&#xf18b;"),
-    	pagelines("&#xf18c;"),
-    	stack_exchange("&#xf18d;"),
-    	arrow_circle_o_right("&#xf18e;"),
-    	arrow_circle_o_left("&#xf190;"),
-    	toggle_left("&#xf191;"),
-    	caret_square_o_left("&#xf191;"),
-    	dot_circle_o("&#xf192;"),
-    	wheelchair("&#xf193;"),
-    	vimeo_square("&#xf194;"),
-    	turkish_lira("&#xf195;"),
-    	try_FI("&#xf195;"),
-    	plus_square_o("&#xf196;"),
-    	space_shuttle("&#xf197;"),
-    	slack("&#xf198;"),
-    	envelope_square("&#xf199;"),
-    	wordpress("&#xf19a;"),
-    	openid("&#xf19b;"),
-    	institution("&#xf19c;"),
-    	bank("&#xf19c;"),
-    	university("&#xf19c;"),
-    	mortar_board("&#xf19d;"),
-    	graduation_cap("&#xf19d;"),
-    	yahoo("&#xf19e;"),
-    	google("&#xf1a0;"),
-    	reddit("&#xf1a1;"),
-    	reddit_square("&#xf1a2;"),
-    	stumbleupon_circle("&#xf1a3;"),
-    	stumbleupon("&#xf1a4;"),
-    	delicious("&#xf1a5;"),
-    	digg("&#xf1a6;"),
-    	pied_piper("&#xf1a7;"),
-    	pied_piper_alt("&#xf1a8;"),
-    	drupal("&#xf1a9;"),
-    	joomla("&#xf1aa;"),
-    	language("&#xf1ab;"),
-    	fax("&#xf1ac;"),
-    	building("&#xf1ad;"),
-    	child("&#xf1ae;"),
-    	paw("&#xf1b0;"),
-    	spoon("&#xf1b1;"),
-    	cube("&#xf1b2;"),
-    	cubes("&#xf1b3;"),
-    	behance("&#xf1b4;"),
-    	behance_square("&#xf1b5;"),
-    	steam("&#xf1b6;"),
-    	steam_square("&#xf1b7;"),
-    	recycle("&#xf1b8;"),
-    	automobile("&#xf1b9;"),
-    	car("&#xf1b9;"),
-    	cab("&#xf1ba;"),
-    	taxi("&#xf1ba;"),
-    	tree("&#xf1bb;"),
-    	spotify("&#xf1bc;"),
-    	deviantart("&#xf1bd;"),
-    	soundcloud("&#xf1be;"),
-    	database("&#xf1c0;"),
-    	file_pdf_o("&#xf1c1;"),
-    	file_word_o("&#xf1c2;"),
-    	file_excel_o("&#xf1c3;"),
-    	file_powerpoint_o("&#xf1c4;"),
-    	file_photo_o("&#xf1c5;"),
-    	file_picture_o("&#xf1c5;"),
-    	file_image_o("&#xf1c5;"),
-    	file_zip_o("&#xf1c6;"),
-    	file_archive_o("&#xf1c6;"),
-    	file_sound_o("&#xf1c7;"),
-    	file_audio_o("&#xf1c7;"),
-    	file_movie_o("&#xf1c8;"),
-    	file_video_o("&#xf1c8;"),
-    	file_code_o("&#xf1c9;"),
-    	vine("&#xf1ca;"),
-    	codepen("&#xf1cb;"),
-    	jsfiddle("&#xf1cc;"),
-    	life_bouy("&#xf1cd;"),
-    	life_buoy("&#xf1cd;"),
-    	life_saver("&#xf1cd;"),
-    	support("&#xf1cd;"),
-    	life_ring("&#xf1cd;"),
-    	circle_o_notch("&#xf1ce;"),
-    	ra("&#xf1d0;"),
-    	rebel("&#xf1d0;"),
-    	ge("&#xf1d1;"),
-    	empire("&#xf1d1;"),
-    	git_square("&#xf1d2;"),
-    	git("&#xf1d3;"),
-    	hacker_news("&#xf1d4;"),
-    	tencent_weibo("&#xf1d5;"),
-    	qq("&#xf1d6;"),
-    	wechat("&#xf1d7;"),
-    	weixin("&#xf1d7;"),
-    	send("&#xf1d8;"),
-    	paper_plane("&#xf1d8;"),
-    	send_o("&#xf1d9;"),
-    	paper_plane_o("&#xf1d9;"),
-    	history("&#xf1da;"),
-    	circle_thin("&#xf1db;"),
-    	header("&#xf1dc;"),
-    	paragraph("&#xf1dd;"),
-    	sliders("&#xf1de;"),
-    	share_alt("&#xf1e0;"),
-    	share_alt_square("&#xf1e1;"),
-    	bomb("&#xf1e2;"),
-    	soccer_ball_o("&#xf1e3;"),
-    	futbol_o("&#xf1e3;"),
-    	tty("&#xf1e4;"),
-    	binoculars("&#xf1e5;"),
-    	plug("&#xf1e6;"),
-    	slideshare("&#xf1e7;"),
-    	twitch("&#xf1e8;"),
-    	yelp("&#xf1e9;"),
-    	newspaper_o("&#xf1ea;"),
-    	wifi("&#xf1eb;"),
-    	calculator("&#xf1ec;"),
-    	paypal("&#xf1ed;"),
-    	google_wallet("&#xf1ee;"),
-    	cc_visa("&#xf1f0;"),
-    	cc_mastercard("&#xf1f1;"),
-    	cc_discover("&#xf1f2;"),
-    	cc_amex("&#xf1f3;"),
-    	cc_paypal("&#xf1f4;"),
-    	cc_stripe("&#xf1f5;"),
-    	bell_slash("&#xf1f6;"),
-    	bell_slash_o("&#xf1f7;"),
-    	trash("&#xf1f8;"),
-    	copyright("&#xf1f9;"),
-    	at("&#xf1fa;"),
-    	eyedropper("&#xf1fb;"),
-    	paint_brush("&#xf1fc;"),
-    	birthday_cake("&#xf1fd;"),
-    	area_chart("&#xf1fe;"),
-    	pie_chart("&#xf200;"),
-    	line_chart("&#xf201;"),
-    	lastfm("&#xf202;"),
-    	lastfm_square("&#xf203;"),
-    	toggle_off("&#xf204;"),
-    	toggle_on("&#xf205;"),
-    	bicycle("&#xf206;"),
-    	bus("&#xf207;"),
-    	ioxhost("&#xf208;"),
-    	angellist("&#xf209;"),
-    	cc("&#xf20a;"),
-    	shekel("&#xf20b;"),
-    	sheqel("&#xf20b;"),
-    	ils("&#xf20b;"),
-    	meanpath("&#xf20c;");
-
-
-        private final String id;
-
-        private Icon(String id) {
-            this.id = id;
+    	// Generated by IconEnumGenerator from Font Awesome 4.2.0, do not edit
+    	glass(0xf000),
+    	music(0xf001),
+    	search(0xf002),
+    	envelope_o(0xf003),
+    	heart(0xf004),
+    	star(0xf005),
+    	star_o(0xf006),
+    	user(0xf007),
+    	film(0xf008),
+    	th_large(0xf009),
+    	th(0xf00a),
+    	th_list(0xf00b),
+    	check(0xf00c),
+    	remove(0xf00d),
+    	close(0xf00d),
+    	times(0xf00d),
+    	search_plus(0xf00e),
+    	search_minus(0xf010),
+    	power_off(0xf011),
+    	signal(0xf012),
+    	gear(0xf013),
+    	cog(0xf013),
+    	trash_o(0xf014),
+    	home(0xf015),
+    	file_o(0xf016),
+    	clock_o(0xf017),
+    	road(0xf018),
+    	download(0xf019),
+    	arrow_circle_o_down(0xf01a),
+    	arrow_circle_o_up(0xf01b),
+    	inbox(0xf01c),
+    	play_circle_o(0xf01d),
+    	rotate_right(0xf01e),
+    	repeat(0xf01e),
+    	refresh(0xf021),
+    	list_alt(0xf022),
+    	lock(0xf023),
+    	flag(0xf024),
+    	headphones(0xf025),
+    	volume_off(0xf026),
+    	volume_down(0xf027),
+    	volume_up(0xf028),
+    	qrcode(0xf029),
+    	barcode(0xf02a),
+    	tag(0xf02b),
+    	tags(0xf02c),
+    	book(0xf02d),
+    	bookmark(0xf02e),
+    	print(0xf02f),
+    	camera(0xf030),
+    	font(0xf031),
+    	bold(0xf032),
+    	italic(0xf033),
+    	text_height(0xf034),
+    	text_width(0xf035),
+    	align_left(0xf036),
+    	align_center(0xf037),
+    	align_right(0xf038),
+    	align_justify(0xf039),
+    	list(0xf03a),
+    	dedent(0xf03b),
+    	outdent(0xf03b),
+    	indent(0xf03c),
+    	video_camera(0xf03d),
+    	photo(0xf03e),
+    	image(0xf03e),
+    	picture_o(0xf03e),
+    	pencil(0xf040),
+    	map_marker(0xf041),
+    	adjust(0xf042),
+    	tint(0xf043),
+    	edit(0xf044),
+    	pencil_square_o(0xf044),
+    	share_square_o(0xf045),
+    	check_square_o(0xf046),
+    	arrows(0xf047),
+    	step_backward(0xf048),
+    	fast_backward(0xf049),
+    	backward(0xf04a),
+    	play(0xf04b),
+    	pause(0xf04c),
+    	stop(0xf04d),
+    	forward(0xf04e),
+    	fast_forward(0xf050),
+    	step_forward(0xf051),
+    	eject(0xf052),
+    	chevron_left(0xf053),
+    	chevron_right(0xf054),
+    	plus_circle(0xf055),
+    	minus_circle(0xf056),
+    	times_circle(0xf057),
+    	check_circle(0xf058),
+    	question_circle(0xf059),
+    	info_circle(0xf05a),
+    	crosshairs(0xf05b),
+    	times_circle_o(0xf05c),
+    	check_circle_o(0xf05d),
+    	ban(0xf05e),
+    	arrow_left(0xf060),
+    	arrow_right(0xf061),
+    	arrow_up(0xf062),
+    	arrow_down(0xf063),
+    	mail_forward(0xf064),
+    	share(0xf064),
+    	expand(0xf065),
+    	compress(0xf066),
+    	plus(0xf067),
+    	minus(0xf068),
+    	asterisk(0xf069),
+    	exclamation_circle(0xf06a),
+    	gift(0xf06b),
+    	leaf(0xf06c),
+    	fire(0xf06d),
+    	eye(0xf06e),
+    	eye_slash(0xf070),
+    	warning(0xf071),
+    	exclamation_triangle(0xf071),
+    	plane(0xf072),
+    	calendar(0xf073),
+    	random(0xf074),
+    	comment(0xf075),
+    	magnet(0xf076),
+    	chevron_up(0xf077),
+    	chevron_down(0xf078),
+    	retweet(0xf079),
+    	shopping_cart(0xf07a),
+    	folder(0xf07b),
+    	folder_open(0xf07c),
+    	arrows_v(0xf07d),
+    	arrows_h(0xf07e),
+    	bar_chart_o(0xf080),
+    	bar_chart(0xf080),
+    	twitter_square(0xf081),
+    	facebook_square(0xf082),
+    	camera_retro(0xf083),
+    	key(0xf084),
+    	gears(0xf085),
+    	cogs(0xf085),
+    	comments(0xf086),
+    	thumbs_o_up(0xf087),
+    	thumbs_o_down(0xf088),
+    	star_half(0xf089),
+    	heart_o(0xf08a),
+    	sign_out(0xf08b),
+    	linkedin_square(0xf08c),
+    	thumb_tack(0xf08d),
+    	external_link(0xf08e),
+    	sign_in(0xf090),
+    	trophy(0xf091),
+    	github_square(0xf092),
+    	upload(0xf093),
+    	lemon_o(0xf094),
+    	phone(0xf095),
+    	square_o(0xf096),
+    	bookmark_o(0xf097),
+    	phone_square(0xf098),
+    	twitter(0xf099),
+    	facebook(0xf09a),
+    	github(0xf09b),
+    	unlock(0xf09c),
+    	credit_card(0xf09d),
+    	rss(0xf09e),
+    	hdd_o(0xf0a0),
+    	bullhorn(0xf0a1),
+    	bell(0xf0f3),
+    	certificate(0xf0a3),
+    	hand_o_right(0xf0a4),
+    	hand_o_left(0xf0a5),
+    	hand_o_up(0xf0a6),
+    	hand_o_down(0xf0a7),
+    	arrow_circle_left(0xf0a8),
+    	arrow_circle_right(0xf0a9),
+    	arrow_circle_up(0xf0aa),
+    	arrow_circle_down(0xf0ab),
+    	globe(0xf0ac),
+    	wrench(0xf0ad),
+    	tasks(0xf0ae),
+    	filter(0xf0b0),
+    	briefcase(0xf0b1),
+    	arrows_alt(0xf0b2),
+    	group(0xf0c0),
+    	users(0xf0c0),
+    	chain(0xf0c1),
+    	link(0xf0c1),
+    	cloud(0xf0c2),
+    	flask(0xf0c3),
+    	cut(0xf0c4),
+    	scissors(0xf0c4),
+    	copy(0xf0c5),
+    	files_o(0xf0c5),
+    	paperclip(0xf0c6),
+    	save(0xf0c7),
+    	floppy_o(0xf0c7),
+    	square(0xf0c8),
+    	navicon(0xf0c9),
+    	reorder(0xf0c9),
+    	bars(0xf0c9),
+    	list_ul(0xf0ca),
+    	list_ol(0xf0cb),
+    	strikethrough(0xf0cc),
+    	underline(0xf0cd),
+    	table(0xf0ce),
+    	magic(0xf0d0),
+    	truck(0xf0d1),
+    	pinterest(0xf0d2),
+    	pinterest_square(0xf0d3),
+    	google_plus_square(0xf0d4),
+    	google_plus(0xf0d5),
+    	money(0xf0d6),
+    	caret_down(0xf0d7),
+    	caret_up(0xf0d8),
+    	caret_left(0xf0d9),
+    	caret_right(0xf0da),
+    	columns(0xf0db),
+    	unsorted(0xf0dc),
+    	sort(0xf0dc),
+    	sort_down(0xf0dd),
+    	sort_desc(0xf0dd),
+    	sort_up(0xf0de),
+    	sort_asc(0xf0de),
+    	envelope(0xf0e0),
+    	linkedin(0xf0e1),
+    	rotate_left(0xf0e2),
+    	undo(0xf0e2),
+    	legal(0xf0e3),
+    	gavel(0xf0e3),
+    	dashboard(0xf0e4),
+    	tachometer(0xf0e4),
+    	comment_o(0xf0e5),
+    	comments_o(0xf0e6),
+    	flash(0xf0e7),
+    	bolt(0xf0e7),
+    	sitemap(0xf0e8),
+    	umbrella(0xf0e9),
+    	paste(0xf0ea),
+    	clipboard(0xf0ea),
+    	lightbulb_o(0xf0eb),
+    	exchange(0xf0ec),
+    	cloud_download(0xf0ed),
+    	cloud_upload(0xf0ee),
+    	user_md(0xf0f0),
+    	stethoscope(0xf0f1),
+    	suitcase(0xf0f2),
+    	bell_o(0xf0a2),
+    	coffee(0xf0f4),
+    	cutlery(0xf0f5),
+    	file_text_o(0xf0f6),
+    	building_o(0xf0f7),
+    	hospital_o(0xf0f8),
+    	ambulance(0xf0f9),
+    	medkit(0xf0fa),
+    	fighter_jet(0xf0fb),
+    	beer(0xf0fc),
+    	h_square(0xf0fd),
+    	plus_square(0xf0fe),
+    	angle_double_left(0xf100),
+    	angle_double_right(0xf101),
+    	angle_double_up(0xf102),
+    	angle_double_down(0xf103),
+    	angle_left(0xf104),
+    	angle_right(0xf105),
+    	angle_up(0xf106),
+    	angle_down(0xf107),
+    	desktop(0xf108),
+    	laptop(0xf109),
+    	tablet(0xf10a),
+    	mobile_phone(0xf10b),
+    	mobile(0xf10b),
+    	circle_o(0xf10c),
+    	quote_left(0xf10d),
+    	quote_right(0xf10e),
+    	spinner(0xf110),
+    	circle(0xf111),
+    	mail_reply(0xf112),
+    	reply(0xf112),
+    	github_alt(0xf113),
+    	folder_o(0xf114),
+    	folder_open_o(0xf115),
+    	smile_o(0xf118),
+    	frown_o(0xf119),
+    	meh_o(0xf11a),
+    	gamepad(0xf11b),
+    	keyboard_o(0xf11c),
+    	flag_o(0xf11d),
+    	flag_checkered(0xf11e),
+    	terminal(0xf120),
+    	code(0xf121),
+    	mail_reply_all(0xf122),
+    	reply_all(0xf122),
+    	star_half_empty(0xf123),
+    	star_half_full(0xf123),
+    	star_half_o(0xf123),
+    	location_arrow(0xf124),
+    	crop(0xf125),
+    	code_fork(0xf126),
+    	unlink(0xf127),
+    	chain_broken(0xf127),
+    	question(0xf128),
+    	info(0xf129),
+    	exclamation(0xf12a),
+    	superscript(0xf12b),
+    	subscript(0xf12c),
+    	eraser(0xf12d),
+    	puzzle_piece(0xf12e),
+    	microphone(0xf130),
+    	microphone_slash(0xf131),
+    	shield(0xf132),
+    	calendar_o(0xf133),
+    	fire_extinguisher(0xf134),
+    	rocket(0xf135),
+    	maxcdn(0xf136),
+    	chevron_circle_left(0xf137),
+    	chevron_circle_right(0xf138),
+    	chevron_circle_up(0xf139),
+    	chevron_circle_down(0xf13a),
+    	html5(0xf13b),
+    	css3(0xf13c),
+    	anchor(0xf13d),
+    	unlock_alt(0xf13e),
+    	bullseye(0xf140),
+    	ellipsis_h(0xf141),
+    	ellipsis_v(0xf142),
+    	rss_square(0xf143),
+    	play_circle(0xf144),
+    	ticket(0xf145),
+    	minus_square(0xf146),
+    	minus_square_o(0xf147),
+    	level_up(0xf148),
+    	level_down(0xf149),
+    	check_square(0xf14a),
+    	pencil_square(0xf14b),
+    	external_link_square(0xf14c),
+    	share_square(0xf14d),
+    	compass(0xf14e),
+    	toggle_down(0xf150),
+    	caret_square_o_down(0xf150),
+    	toggle_up(0xf151),
+    	caret_square_o_up(0xf151),
+    	toggle_right(0xf152),
+    	caret_square_o_right(0xf152),
+    	euro(0xf153),
+    	eur(0xf153),
+    	gbp(0xf154),
+    	dollar(0xf155),
+    	usd(0xf155),
+    	rupee(0xf156),
+    	inr(0xf156),
+    	cny(0xf157),
+    	rmb(0xf157),
+    	yen(0xf157),
+    	jpy(0xf157),
+    	ruble(0xf158),
+    	rouble(0xf158),
+    	rub(0xf158),
+    	won(0xf159),
+    	krw(0xf159),
+    	bitcoin(0xf15a),
+    	btc(0xf15a),
+    	file(0xf15b),
+    	file_text(0xf15c),
+    	sort_alpha_asc(0xf15d),
+    	sort_alpha_desc(0xf15e),
+    	sort_amount_asc(0xf160),
+    	sort_amount_desc(0xf161),
+    	sort_numeric_asc(0xf162),
+    	sort_numeric_desc(0xf163),
+    	thumbs_up(0xf164),
+    	thumbs_down(0xf165),
+    	youtube_square(0xf166),
+    	youtube(0xf167),
+    	xing(0xf168),
+    	xing_square(0xf169),
+    	youtube_play(0xf16a),
+    	dropbox(0xf16b),
+    	stack_overflow(0xf16c),
+    	instagram(0xf16d),
+    	flickr(0xf16e),
+    	adn(0xf170),
+    	bitbucket(0xf171),
+    	bitbucket_square(0xf172),
+    	tumblr(0xf173),
+    	tumblr_square(0xf174),
+    	long_arrow_down(0xf175),
+    	long_arrow_up(0xf176),
+    	long_arrow_left(0xf177),
+    	long_arrow_right(0xf178),
+    	apple(0xf179),
+    	windows(0xf17a),
+    	android(0xf17b),
+    	linux(0xf17c),
+    	dribbble(0xf17d),
+    	skype(0xf17e),
+    	foursquare(0xf180),
+    	trello(0xf181),
+    	female(0xf182),
+    	male(0xf183),
+    	gittip(0xf184),
+    	sun_o(0xf185),
+    	moon_o(0xf186),
+    	archive(0xf187),
+    	bug(0xf188),
+    	vk(0xf189),
+    	weibo(0xf18a),
+    	renren(0xf18b),
+    	pagelines(0xf18c),
+    	stack_exchange(0xf18d),
+    	arrow_circle_o_right(0xf18e),
+    	arrow_circle_o_left(0xf190),
+    	toggle_left(0xf191),
+    	caret_square_o_left(0xf191),
+    	dot_circle_o(0xf192),
+    	wheelchair(0xf193),
+    	vimeo_square(0xf194),
+    	turkish_lira(0xf195),
+    	try_FI(0xf195),
+    	plus_square_o(0xf196),
+    	space_shuttle(0xf197),
+    	slack(0xf198),
+    	envelope_square(0xf199),
+    	wordpress(0xf19a),
+    	openid(0xf19b),
+    	institution(0xf19c),
+    	bank(0xf19c),
+    	university(0xf19c),
+    	mortar_board(0xf19d),
+    	graduation_cap(0xf19d),
+    	yahoo(0xf19e),
+    	google(0xf1a0),
+    	reddit(0xf1a1),
+    	reddit_square(0xf1a2),
+    	stumbleupon_circle(0xf1a3),
+    	stumbleupon(0xf1a4),
+    	delicious(0xf1a5),
+    	digg(0xf1a6),
+    	pied_piper(0xf1a7),
+    	pied_piper_alt(0xf1a8),
+    	drupal(0xf1a9),
+    	joomla(0xf1aa),
+    	language(0xf1ab),
+    	fax(0xf1ac),
+    	building(0xf1ad),
+    	child(0xf1ae),
+    	paw(0xf1b0),
+    	spoon(0xf1b1),
+    	cube(0xf1b2),
+    	cubes(0xf1b3),
+    	behance(0xf1b4),
+    	behance_square(0xf1b5),
+    	steam(0xf1b6),
+    	steam_square(0xf1b7),
+    	recycle(0xf1b8),
+    	automobile(0xf1b9),
+    	car(0xf1b9),
+    	cab(0xf1ba),
+    	taxi(0xf1ba),
+    	tree(0xf1bb),
+    	spotify(0xf1bc),
+    	deviantart(0xf1bd),
+    	soundcloud(0xf1be),
+    	database(0xf1c0),
+    	file_pdf_o(0xf1c1),
+    	file_word_o(0xf1c2),
+    	file_excel_o(0xf1c3),
+    	file_powerpoint_o(0xf1c4),
+    	file_photo_o(0xf1c5),
+    	file_picture_o(0xf1c5),
+    	file_image_o(0xf1c5),
+    	file_zip_o(0xf1c6),
+    	file_archive_o(0xf1c6),
+    	file_sound_o(0xf1c7),
+    	file_audio_o(0xf1c7),
+    	file_movie_o(0xf1c8),
+    	file_video_o(0xf1c8),
+    	file_code_o(0xf1c9),
+    	vine(0xf1ca),
+    	codepen(0xf1cb),
+    	jsfiddle(0xf1cc),
+    	life_bouy(0xf1cd),
+    	life_buoy(0xf1cd),
+    	life_saver(0xf1cd),
+    	support(0xf1cd),
+    	life_ring(0xf1cd),
+    	circle_o_notch(0xf1ce),
+    	ra(0xf1d0),
+    	rebel(0xf1d0),
+    	ge(0xf1d1),
+    	empire(0xf1d1),
+    	git_square(0xf1d2),
+    	git(0xf1d3),
+    	hacker_news(0xf1d4),
+    	tencent_weibo(0xf1d5),
+    	qq(0xf1d6),
+    	wechat(0xf1d7),
+    	weixin(0xf1d7),
+    	send(0xf1d8),
+    	paper_plane(0xf1d8),
+    	send_o(0xf1d9),
+    	paper_plane_o(0xf1d9),
+    	history(0xf1da),
+    	circle_thin(0xf1db),
+    	header(0xf1dc),
+    	paragraph(0xf1dd),
+    	sliders(0xf1de),
+    	share_alt(0xf1e0),
+    	share_alt_square(0xf1e1),
+    	bomb(0xf1e2),
+    	soccer_ball_o(0xf1e3),
+    	futbol_o(0xf1e3),
+    	tty(0xf1e4),
+    	binoculars(0xf1e5),
+    	plug(0xf1e6),
+    	slideshare(0xf1e7),
+    	twitch(0xf1e8),
+    	yelp(0xf1e9),
+    	newspaper_o(0xf1ea),
+    	wifi(0xf1eb),
+    	calculator(0xf1ec),
+    	paypal(0xf1ed),
+    	google_wallet(0xf1ee),
+    	cc_visa(0xf1f0),
+    	cc_mastercard(0xf1f1),
+    	cc_discover(0xf1f2),
+    	cc_amex(0xf1f3),
+    	cc_paypal(0xf1f4),
+    	cc_stripe(0xf1f5),
+    	bell_slash(0xf1f6),
+    	bell_slash_o(0xf1f7),
+    	trash(0xf1f8),
+    	copyright(0xf1f9),
+    	at(0xf1fa),
+    	eyedropper(0xf1fb),
+    	paint_brush(0xf1fc),
+    	birthday_cake(0xf1fd),
+    	area_chart(0xf1fe),
+    	pie_chart(0xf200),
+    	line_chart(0xf201),
+    	lastfm(0xf202),
+    	lastfm_square(0xf203),
+    	toggle_off(0xf204),
+    	toggle_on(0xf205),
+    	bicycle(0xf206),
+    	bus(0xf207),
+    	ioxhost(0xf208),
+    	angellist(0xf209),
+    	cc(0xf20a),
+    	shekel(0xf20b),
+    	sheqel(0xf20b),
+    	ils(0xf20b),
+    	meanpath(0xf20c);
+
+
+        /**
+         * Upper bound for the number of cached variant fragments; further
+         * combinations are rendered on each call.
+         */
+        private static final int FRAGMENT_CACHE_SIZE = 8192;
+
+        /**
+         * Cached variant fragments, by mask * {@link #ICON_COUNT} + ordinal
+         */
+        private static final FragmentCache<String> fragments = new FragmentCache<String>(
+                FRAGMENT_CACHE_SIZE);
+
+        private final int codepoint;
+
+        private Icon(int codepoint) {
+            this.codepoint = codepoint;
         }
 
         @Override
         public String toString() {
-            return variant();
+            if (IconUsage.enabled) {
+                IconUsage.record(this, 0);
+            }
+            return html();
         }
 
         /**
@@ -745,36 +975,381 @@ public class FontAwesome {
          * @return character entity
          */
         public String id() {
+            int i = CANONICAL[ordinal()];
+            String id = ids[i];
+            if (id == null) {
+                ids[i] = id = "&#x" + Integer.toHexString(codepoint) + ";";
+            }
             return id;
         }
 
+        /**
+         * Gets the Unicode codepoint of this {@link Icon}, e.g
+         * <code>0xf000</code>.
+         * 
+         * @return codepoint
+         */
+        public int codepoint() {
+            return codepoint;
+        }
+
+        /**
+         * Gets the raw glyph of this {@link Icon}, for plain text such as
+         * captions, descriptions and exports, where HTML is not available.
+         * <p>
+         * The glyph only shows as the icon in the FontAwesome font, e.g in a
+         * component with the {@link FontAwesome#GLYPH_STYLENAME}:
+         * <code>button.setCaption(Icon.save.glyph());
+         * button.addStyleName(FontAwesome.GLYPH_STYLENAME);</code>
+         * </p>
+         * 
+         * @return the glyph as a string
+         */
+        public String glyph() {
+            if (IconUsage.enabled) {
+                IconUsage.record(this, 0);
+            }
+            int i = CANONICAL[ordinal()];
+            String glyph = glyphs[i];
+            if (glyph == null) {
+                glyphs[i] = glyph = new String(Character.toChars(codepoint));
+            }
+            return glyph;
+        }
+
+        /**
+         * Gets the CSS name for this {@link Icon}, e.g <code>thumbs-o-up</code>
+         * (without the <code>fa-</code> prefix).
+         * 
+         * @return the CSS name
+         */
+        public String cssName() {
+            int from = NAME_OFFSETS[ordinal()];
+            return new String(NAMES, from, NAME_OFFSETS[ordinal() + 1] - from);
+        }
+
         /**
          * Gets the stylename used for this {@link Icon}.
          * 
          * @return the icon stylename
          */
         public String stylename() {
-        	//_FI prepended for reserved words
-            return "fa fa-" + name().replaceAll("_FI", "").replaceAll("_", "-");
+            if (IconUsage.enabled) {
+                IconUsage.record(this, 0);
+            }
+            String stylename = stylenames[ordinal()];
+            if (stylename == null) {
+                stylenames[ordinal()] = stylename = "fa fa-" + cssName();
+            }
+            return stylename;
         }
 
         /**
          * Gets the icon HTML with the given {@link IconVariant}s added.
          * <p>
          * Multiple {@link IconVariant}s can be used, but all combinations do
-         * not make sense.
+         * not make sense. The variant stylenames are emitted once each, in
+         * {@link IconVariant} declaration order.
          * </p>
          * 
          * @param variants
          * @return
          */
         public String variant(IconVariant... variants) {
-            String stylenames = stylename();
-            for (IconVariant v : variants) {
-                stylenames += " " + v;
+            return variant(IconVariant.mask(variants));
+        }
+
+        /**
+         * Gets the icon HTML with the given {@link IconVariant}s added.
+         * 
+         * @see #variant(IconVariant...)
+         * @param variants
+         * @return
+         */
+        public String variant(Set<IconVariant> variants) {
+            return variant(IconVariant.mask(variants));
+        }
+
+        /**
+         * Gets the icon HTML with the {@link IconVariant}s in the given
+         * bitmask added. The returned fragments are cached, so repeated calls
+         * with the same mask return the same instance.
+         * 
+         * @see IconVariant#mask(IconVariant...)
+         * @param mask
+         *            variant bitmask
+         * @return
+         */
+        public String variant(long mask) {
+            if (IconUsage.enabled) {
+                IconUsage.record(this, mask);
+            }
+            return fragment(mask);
+        }
+
+        /**
+         * Gets the icon as inline SVG, referring to its symbol in the
+         * {@link IconSprite}, instead of the font:
+         * <code>&lt;svg class="fa-svg"&gt;&lt;use xlink:href="#fa-glass"/&gt;&lt;/svg&gt;</code>
+         * 
+         * @return SVG HTML
+         */
+        public String svg() {
+            return svg(0);
+        }
+
+        /**
+         * Gets the icon as inline SVG with the given {@link IconVariant}s
+         * added.
+         * 
+         * @see #svg()
+         * @param variants
+         * @return SVG HTML
+         */
+        public String svg(IconVariant... variants) {
+            return svg(IconVariant.mask(variants));
+        }
+
+        /**
+         * Gets the icon as inline SVG with the {@link IconVariant}s in the
+         * given bitmask added.
+         * 
+         * @see #svg()
+         * @param mask
+         *            variant bitmask
+         * @return SVG HTML
+         */
+        public String svg(long mask) {
+            IconVariant.checkMask(mask);
+            if (IconUsage.enabled) {
+                IconUsage.record(this, mask);
+            }
+            return IconSprite.html(this, mask);
+        }
+
+        /**
+         * Gets the (cached) HTML for the mask, without recording usage.
+         */
+        String fragment(long mask) {
+            if (mask == 0) {
+                return html();
+            }
+            IconVariant.checkMask(mask);
+            long key = mask * ICON_COUNT + ordinal();
+            String fragment = fragments.get(key);
+            if (fragment == null) {
+                fragment = render(mask);
+                if (!fragments.isFull()) {
+                    fragment = fragments.putIfAbsent(key, fragment);
+                }
+            }
+            return fragment;
+        }
+
+        /**
+         * Appends the icon HTML with the given {@link IconVariant}s to the
+         * given buffer; the output is identical to
+         * {@link #variant(IconVariant...)}.
+         * 
+         * @param out
+         * @param variants
+         * @return the given buffer
+         */
+        public StringBuilder appendTo(StringBuilder out,
+                IconVariant... variants) {
+            return appendTo(out, IconVariant.mask(variants));
+        }
+
+        /**
+         * Appends the icon HTML with the given {@link IconVariant}s to the
+         * given buffer; the output is identical to {@link #variant(Set)}.
+         * 
+         * @param out
+         * @param variants
+         * @return the given buffer
+         */
+        public StringBuilder appendTo(StringBuilder out,
+                Set<IconVariant> variants) {
+            return appendTo(out, IconVariant.mask(variants));
+        }
+
+        /**
+         * Appends the icon HTML with the {@link IconVariant}s in the given
+         * bitmask to the given buffer; the output is identical to
+         * {@link #variant(long)}.
+         * 
+         * @param out
+         * @param mask
+         *            variant bitmask
+         * @return the given buffer
+         */
+        public StringBuilder appendTo(StringBuilder out, long mask) {
+            try {
+                appendTo((Appendable) out, mask);
+            } catch (IOException e) {
+                // StringBuilder does not throw
+                throw new IllegalStateException(e);
             }
-            return "<i class=\"" + stylenames + "\"></i>";
+            return out;
+        }
+
+        /**
+         * Writes the icon HTML with the given {@link IconVariant}s to the
+         * given {@link Appendable}, e.g a {@link java.io.Writer}; the output is
+         * identical to {@link #variant(IconVariant...)}.
+         * 
+         * @param out
+         * @param variants
+         * @return the given {@link Appendable}
+         * @throws IOException
+         *             if writing to the {@link Appendable} fails
+         */
+        public Appendable appendTo(Appendable out, IconVariant... variants)
+                throws IOException {
+            return appendTo(out, IconVariant.mask(variants));
+        }
+
+        /**
+         * Writes the icon HTML with the given {@link IconVariant}s to the
+         * given {@link Appendable}; the output is identical to
+         * {@link #variant(Set)}.
+         * 
+         * @param out
+         * @param variants
+         * @return the given {@link Appendable}
+         * @throws IOException
+         *             if writing to the {@link Appendable} fails
+         */
+        public Appendable appendTo(Appendable out, Set<IconVariant> variants)
+                throws IOException {
+            return appendTo(out, IconVariant.mask(variants));
         }
 
+        /**
+         * Writes the icon HTML with the {@link IconVariant}s in the given
+         * bitmask to the given {@link Appendable}; the output is identical to
+         * {@link #variant(long)}. Cached fragments are written as-is, other
+         * combinations are written piecewise without intermediate strings.
+         * 
+         * @param out
+         * @param mask
+         *            variant bitmask
+         * @return the given {@link Appendable}
+         * @throws IOException
+         *             if writing to the {@link Appendable} fails
+         */
+        public Appendable appendTo(Appendable out, long mask)
+                throws IOException {
+            if (IconUsage.enabled) {
+                IconUsage.record(this, mask);
+            }
+            if (mask == 0) {
+                return out.append(html());
+            }
+            IconVariant.checkMask(mask);
+            String fragment = fragments.get(mask * ICON_COUNT + ordinal());
+            if (fragment != null || !fragments.isFull()) {
+                return out.append(fragment != null ? fragment : fragment(mask));
+            }
+            return render(out, mask);
+        }
+
+        private String render(long mask) {
+            try {
+                return render(new StringBuilder(64), mask).toString();
+            } catch (IOException e) {
+                // StringBuilder does not throw
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Appendable render(Appendable out, long mask)
+                throws IOException {
+            appendCssName(out.append("<i class=\"fa fa-"));
+            for (IconVariant v : VARIANTS) {
+                if ((mask & v.mask()) != 0) {
+                    out.append(' ').append(v.toString());
+                }
+            }
+            return out.append("\"></i>");
+        }
+
+        /**
+         * Gets the (cached) HTML without variants.
+         */
+        private String html() {
+            String html = htmls[ordinal()];
+            if (html == null) {
+                htmls[ordinal()] = html = render(0);
+            }
+            return html;
+        }
+
+        private void appendCssName(Appendable out) throws IOException {
+            int from = NAME_OFFSETS[ordinal()];
+            int length = NAME_OFFSETS[ordinal() + 1] - from;
+            if (out instanceof StringBuilder) {
+                ((StringBuilder) out).append(NAMES, from, length);
+            } else if (out instanceof Writer) {
+                ((Writer) out).write(NAMES, from, length);
+            } else {
+                for (int i = from; i < from + length; i++) {
+                    out.append(NAMES[i]);
+                }
+            }
+        }
+
+        private static final int ICON_COUNT = values().length;
+        private static final IconVariant[] VARIANTS = IconVariant.values();
+
+        /*
+         * Metadata in packed form, by ordinal: the CSS names back to back in
+         * one buffer, and for aliases the ordinal of the first icon with the
+         * same codepoint. Strings are only built when asked for, and cached;
+         * the caches are written without locking, as a string is at worst
+         * built twice.
+         */
+        private static final char[] NAMES;
+        private static final int[] NAME_OFFSETS = new int[ICON_COUNT + 1];
+        private static final short[] CANONICAL = new short[ICON_COUNT];
+        private static final String[] stylenames = new String[ICON_COUNT];
+        private static final String[] htmls = new String[ICON_COUNT];
+        /**
+         * Shared by aliases, by canonical ordinal
+         */
+        private static final String[] ids = new String[ICON_COUNT];
+        private static final String[] glyphs = new String[ICON_COUNT];
+
+        static {
+            StringBuilder names = new StringBuilder(ICON_COUNT * 12);
+            Map<Integer, Short> first = new HashMap<Integer, Short>();
+            for (Icon icon : values()) {
+                NAME_OFFSETS[icon.ordinal()] = names.length();
+                names.append(cssName(icon.name()));
+                Short canonical = first.get(icon.codepoint);
+                if (canonical == null) {
+                    canonical = (short) icon.ordinal();
+                    first.put(icon.codepoint, canonical);
+                }
+                CANONICAL[icon.ordinal()] = canonical;
+            }
+            NAME_OFFSETS[ICON_COUNT] = names.length();
+            NAMES = new char[names.length()];
+            names.getChars(0, names.length(), NAMES, 0);
+        }
+
+        /**
+         * The CSS name for a constant name, reversing the IconEnumGenerator
+         * naming: <code>try_FI</code> is <code>try</code>,
+         * <code>thumbs_o_up</code> is <code>thumbs-o-up</code>.
+         */
+        private static String cssName(String name) {
+            if (name.endsWith("_FI")) {
+                name = name.substring(0, name.length() - 3);
+            } else if (name.startsWith("_")) {
+                name = name.substring(1);
+            }
+            return name.replace('_', '-');
+        }
     }
 }
@@ -0,0 +1,253 @@
+package com.porotype.iconfont;
+
+import java.net.URI;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.jsoup.nodes.Element;
+
+import com.vaadin.server.BootstrapFragmentResponse;
+import com.vaadin.server.BootstrapListener;
+import com.vaadin.server.BootstrapPageResponse;
+import com.vaadin.server.ExternalResource;
+import com.vaadin.server.Resource;
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.SessionInitEvent;
+import com.vaadin.server.SessionInitListener;
+import com.vaadin.server.VaadinService;
+
+/**
+ * Adds the FontAwesome stylesheet to the bootstrap page, so the browser
+ * starts loading it, and the font, before the Vaadin client has started.
+ * {@link FontAwesome#load()} then does nothing for the UIs on that page;
+ * embedded UIs, whose host page is not modified, still get the stylesheet
+ * from it.
+ * <p>
+ * Install with {@link #install(VaadinService)}, e.g in
+ * <code>VaadinServlet.servletInitialized()</code>, or use
+ * {@link FontAwesomeVaadinServlet}. The stylesheet is the
+ * {@link FontAwesome#getDefaultLocation() default location}, which must be an
+ * {@link ExternalResource}, e.g the {@link FontAwesome#CDN} or
+ * {@link FontAwesomeServlet}.
+ * </p>
+ * <p>
+ * The font is preloaded too, so it is not discovered only after the
+ * stylesheet has been parsed, and both are announced in a <code>Link</code>
+ * header of the bootstrap response, which a proxy or CDN can act on before
+ * the page arrives. By default the <code>.woff</code> font of the stylesheet
+ * is preloaded; for other fonts, e.g with a CSS from
+ * {@link com.porotype.iconfont.build.IconCss}, see {@link #setFonts(String...)}.
+ * {@link #setFontDisplay(FontDisplay)} controls how text with icons shows
+ * while the font loads. With a {@link FontAwesome#setManifest(AssetManifest)
+ * manifest}, the content-hashed stylesheet and fonts are used.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class FontAwesomeBootstrapListener implements BootstrapListener,
+        SessionInitListener {
+
+    /**
+     * The <code>font-display</code> of the icon font.
+     */
+    public enum FontDisplay {
+        /**
+         * Browser default, usually {@link #BLOCK}
+         */
+        AUTO,
+        /**
+         * Icons are invisible until the font has loaded
+         */
+        BLOCK,
+        /**
+         * Icons show as fallback characters until the font has loaded
+         */
+        SWAP,
+        /**
+         * Icons are invisible for a short while, then shown as fallback
+         * characters until the font has loaded
+         */
+        FALLBACK,
+        /**
+         * As {@link #FALLBACK}, but the browser may skip the font on slow
+         * connections
+         */
+        OPTIONAL;
+
+        /**
+         * Gets the CSS value, e.g <code>swap</code>.
+         */
+        public String css() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    /**
+     * Font Awesome version, in the font URLs of its stylesheet
+     */
+    private static final String VERSION = FontAwesome.CDN.replaceFirst(
+            ".*/font-awesome/([^/]+)/.*", "$1");
+
+    private String[] fonts = { "../fonts/fontawesome-webfont.woff?v="
+            + VERSION };
+    private FontDisplay fontDisplay;
+    private boolean linkHeader = true;
+
+    /**
+     * Adds the stylesheet to the bootstrap page of all new sessions of the
+     * given service.
+     * 
+     * @param service
+     * @return the installed listener, for configuration
+     */
+    public static FontAwesomeBootstrapListener install(VaadinService service) {
+        FontAwesomeBootstrapListener listener = new FontAwesomeBootstrapListener();
+        service.addSessionInitListener(listener);
+        return listener;
+    }
+
+    /**
+     * Sets the fonts to preload: URLs relative to the stylesheet, or
+     * absolute. They must be exactly the URLs in the stylesheet's
+     * <code>@font-face</code>, including any query, or the font is loaded
+     * twice. Default <code>../fonts/fontawesome-webfont.woff?v=4.2.0</code>.
+     * 
+     * @param urls
+     *            font URLs, none to preload only the stylesheet
+     * @return this listener
+     */
+    public FontAwesomeBootstrapListener setFonts(String... urls) {
+        fonts = urls.clone();
+        return this;
+    }
+
+    /**
+     * Sets the <code>font-display</code> of the icon font, by adding an
+     * <code>@font-face</code> for the preloaded fonts to the page.
+     * 
+     * @param fontDisplay
+     *            the font display, or <code>null</code> for the stylesheet's
+     *            own (default)
+     * @return this listener
+     */
+    public FontAwesomeBootstrapListener setFontDisplay(FontDisplay fontDisplay) {
+        this.fontDisplay = fontDisplay;
+        return this;
+    }
+
+    public FontDisplay getFontDisplay() {
+        return fontDisplay;
+    }
+
+    /**
+     * Sets whether the stylesheet and fonts are announced in a
+     * <code>Link</code> header of the bootstrap response; default true.
+     * 
+     * @param linkHeader
+     * @return this listener
+     */
+    public FontAwesomeBootstrapListener setLinkHeader(boolean linkHeader) {
+        this.linkHeader = linkHeader;
+        return this;
+    }
+
+    @Override
+    public void sessionInit(SessionInitEvent event) throws ServiceException {
+        event.getSession().addBootstrapListener(this);
+    }
+
+    @Override
+    public void modifyBootstrapFragment(BootstrapFragmentResponse response) {
+        // embedded; the host page is not ours to modify
+    }
+
+    @Override
+    public void modifyBootstrapPage(BootstrapPageResponse response) {
+        Resource css = FontAwesome.getDefaultLocation();
+        if (!(css instanceof ExternalResource)) {
+            return;
+        }
+        AssetManifest manifest = FontAwesome.getManifest();
+        String url = ((ExternalResource) css).getURL();
+        String[] fontUrls = new String[fonts.length];
+        for (int i = 0; i < fonts.length; i++) {
+            fontUrls[i] = resolve(url, fonts[i]);
+            if (manifest != null) {
+                fontUrls[i] = manifest.resolve(fontUrls[i]);
+            }
+        }
+        if (manifest != null) {
+            css = manifest.resolve(css);
+            url = ((ExternalResource) css).getURL();
+        }
+        Element head = response.getDocument().head();
+        head.appendElement("link").attr("rel", "preload").attr("as", "style")
+                .attr("href", url);
+        StringBuilder link = new StringBuilder("<").append(url).append(
+                ">; rel=preload; as=style");
+        for (String font : fontUrls) {
+            // fonts are fetched in CORS mode, the preload must be too
+            head.appendElement("link").attr("rel", "preload")
+                    .attr("as", "font").attr("type", "font/" + format(font))
+                    .attr("crossorigin", "").attr("href", font);
+            link.append(", <").append(font)
+                    .append(">; rel=preload; as=font; crossorigin");
+        }
+        head.appendElement("link").attr("rel", "stylesheet")
+                .attr("type", "text/css").attr("href", url);
+        head.appendElement("style").attr("type", "text/css")
+                .appendText(FontAwesome.EXTRA_CSS + fontFace(fontUrls));
+        if (linkHeader) {
+            response.setHeader("Link", link.toString());
+        }
+        if (response.getRequest() instanceof HttpServletRequest) {
+            LoadTracker.markBootstrapped(response.getSession(),
+                    ((HttpServletRequest) response.getRequest())
+                            .getRequestURI(), css);
+        }
+    }
+
+    /**
+     * An <code>@font-face</code> with the {@link #setFontDisplay(FontDisplay)
+     * font display}, after the stylesheet so it takes precedence, or an empty
+     * string if there is none.
+     */
+    String fontFace(String[] fontUrls) {
+        if (fontDisplay == null || fontUrls.length == 0) {
+            return "";
+        }
+        StringBuilder css = new StringBuilder(
+                "@font-face{font-family:'FontAwesome';src:");
+        for (int i = 0; i < fontUrls.length; i++) {
+            if (i > 0) {
+                css.append(',');
+            }
+            String format = format(fontUrls[i]);
+            css.append("url('").append(fontUrls[i]).append("') format('")
+                    .append("ttf".equals(format) ? "truetype" : format)
+                    .append("')");
+        }
+        return css.append(";font-weight:normal;font-style:normal;font-display:")
+                .append(fontDisplay.css()).append('}').toString();
+    }
+
+    /**
+     * Resolves a font URL against the stylesheet URL.
+     */
+    static String resolve(String cssUrl, String fontUrl) {
+        try {
+            return new URI(cssUrl).resolve(fontUrl).toString();
+        } catch (Exception e) {
+            return fontUrl;
+        }
+    }
+
+    /**
+     * The font format from the file extension, e.g <code>woff</code>.
+     */
+    static String format(String fontUrl) {
+        String path = fontUrl.replaceFirst("[?#].*", "");
+        return path.substring(path.lastIndexOf('.') + 1).toLowerCase(
+                Locale.ENGLISH);
+    }
+}
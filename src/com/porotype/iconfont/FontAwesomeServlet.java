@@ -0,0 +1,409 @@
+package com.porotype.iconfont;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.vaadin.server.ExternalResource;
+
+/**
+ * Serves the Font Awesome CSS and fonts from the classpath, so no CDN is
+ * needed; by default from the <code>org.webjars:font-awesome</code> jar.
+ * <p>
+ * Each file is read once and kept in memory together with a gzipped copy and
+ * a content based ETag per encoding. As the URLs do not change when the
+ * webjar or application is upgraded, the files are cached for an hour and
+ * then revalidated with the ETag.
+ * </p>
+ * <p>
+ * If the root contains an {@link AssetManifest#FILE asset manifest}, e.g the
+ * output of {@link com.porotype.iconfont.build.IconAssets} on the classpath,
+ * the manifest is read on init: the content-hashed files are served instead,
+ * with their precompressed <code>.gz</code> and <code>.deflate</code>
+ * variants as is, so nothing is compressed at runtime. Requested by their
+ * hashed name, they are served with a one year
+ * <code>Cache-Control: immutable</code>.
+ * </p>
+ * <p>
+ * Map the servlet in <code>web.xml</code>, e.g to
+ * <code>/font-awesome/*</code>; on init it makes {@link FontAwesome#load()}
+ * use the served CSS, {@link FontAwesome.Icon#svg()} the {@link #SPRITE},
+ * which is generated from the bundled font on first request, and
+ * {@link FontIconResource#shared(Icon, int, int)} the {@link #PNG} images.
+ * Init parameters:
+ * </p>
+ * <ul>
+ * <li><code>path</code>: the mapped path, default <code>/font-awesome</code></li>
+ * <li><code>root</code>: the classpath root, default {@link #WEBJAR_ROOT}</li>
+ * <li><code>default</code>: <code>false</code> to leave {@link FontAwesome#load()}
+ * and the {@link IconSprite#setLocation(String) sprite} and
+ * {@link FontIconResource#setLocation(String) PNG} locations as is</li>
+ * </ul>
+ */
+@SuppressWarnings("serial")
+public class FontAwesomeServlet extends HttpServlet {
+
+    /**
+     * Classpath location of Font Awesome in the webjar
+     */
+    public static final String WEBJAR_ROOT = "META-INF/resources/webjars/font-awesome/4.2.0/";
+
+    /**
+     * The CSS, relative to the servlet path
+     */
+    public static final String CSS = "css/font-awesome.min.css";
+
+    /**
+     * The {@link IconSprite} with all icons, relative to the servlet path
+     */
+    public static final String SPRITE = "sprite.svg";
+
+    /**
+     * The {@link FontIconResource} images, relative to the servlet path, e.g
+     * <code>png/f000-16-333333.png</code> for codepoint, size and color
+     */
+    public static final String PNG = "png/";
+
+    private static final Pattern PNG_NAME = Pattern
+            .compile("([0-9a-f]{1,6})-([0-9]{1,3})-([0-9a-f]{6})\\.png");
+
+    private static final String DEFAULT_PATH = "/font-awesome";
+    private static final long MAX_AGE = 365L * 24 * 60 * 60;
+    private static final String CACHE_CONTROL = "public, max-age=" + MAX_AGE
+            + ", immutable";
+    private static final long SHORT_MAX_AGE = 60 * 60;
+    private static final String SHORT_CACHE_CONTROL = "public, max-age="
+            + SHORT_MAX_AGE + ", must-revalidate";
+
+    private final ConcurrentMap<String, Asset> assets = new ConcurrentHashMap<String, Asset>();
+    private String root = WEBJAR_ROOT;
+    private AssetManifest manifest;
+
+    @Override
+    public void init() throws ServletException {
+        if (getInitParameter("root") != null) {
+            root = getInitParameter("root");
+            if (!root.endsWith("/")) {
+                root += "/";
+            }
+        }
+        String path = getInitParameter("path") != null ? getInitParameter("path")
+                : DEFAULT_PATH;
+        String url = getServletContext().getContextPath() + path + "/";
+        InputStream in = getClass().getClassLoader().getResourceAsStream(
+                root + AssetManifest.FILE);
+        if (in != null) {
+            try {
+                manifest = AssetManifest.read(in, url);
+            } catch (IOException e) {
+                throw new ServletException("Reading " + root
+                        + AssetManifest.FILE + " failed", e);
+            }
+        }
+        if (!"false".equals(getInitParameter("default"))) {
+            FontAwesome.setDefaultLocation(new ExternalResource(url + CSS));
+            FontAwesome.setManifest(manifest);
+            IconSprite.setLocation(manifest != null ? manifest.resolve(url
+                    + SPRITE) : url + SPRITE);
+            FontIconResource.setLocation(url + PNG);
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request,
+            HttpServletResponse response) throws ServletException, IOException {
+        String path = request.getPathInfo();
+        if (path != null && path.startsWith("/" + PNG)) {
+            servePng(request, response, path.substring(PNG.length() + 1));
+            return;
+        }
+        Asset asset = path == null ? null : getAsset(path.substring(1));
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // only a content-hashed name always has the same content
+        boolean hashed = manifest != null
+                && manifest.isHashed(path.substring(1));
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        String encoding = null;
+        byte[] body = asset.bytes;
+        String etag = asset.etag;
+        if (asset.gzip != null && accepts(acceptEncoding, "gzip")) {
+            encoding = "gzip";
+            body = asset.gzip;
+            etag = asset.gzipEtag;
+        } else if (asset.deflate != null
+                && accepts(acceptEncoding, "deflate")) {
+            encoding = "deflate";
+            body = asset.deflate;
+            etag = asset.deflateEtag;
+        }
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", hashed ? CACHE_CONTROL
+                : SHORT_CACHE_CONTROL);
+        response.setDateHeader("Expires", System.currentTimeMillis()
+                + (hashed ? MAX_AGE : SHORT_MAX_AGE) * 1000);
+        if (asset.gzip != null || asset.deflate != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null
+                && (ifNoneMatch.contains(etag) || "*".equals(ifNoneMatch))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(asset.contentType);
+        if (encoding != null) {
+            response.setHeader("Content-Encoding", encoding);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Serves a {@link FontIconResource} image from its bounded cache, rather
+     * than as an asset, as there is one per size and color. Only images
+     * handed out by {@link FontIconResource#shared(Icon, int, int)} are
+     * rendered; as the name identifies the image, it is cached for a year.
+     */
+    private void servePng(HttpServletRequest request,
+            HttpServletResponse response, String name) throws IOException {
+        Matcher matcher = PNG_NAME.matcher(name);
+        Set<Icon> icons = null;
+        if (matcher.matches() && FontIconResource.isShared(name)) {
+            icons = IconIndex.byCodepoint(Integer.parseInt(matcher.group(1),
+                    16));
+        }
+        int size = icons == null || icons.isEmpty() ? 0 : Integer
+                .parseInt(matcher.group(2));
+        if (size <= 0 || size > FontIconResource.MAX_SHARED_SIZE) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        byte[] png = FontIconResource.png(icons.iterator().next(), size,
+                Integer.parseInt(matcher.group(3), 16));
+        String etag = "W/\"" + Integer.toHexString(Arrays.hashCode(png))
+                + "\"";
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.setDateHeader("Expires", System.currentTimeMillis()
+                + MAX_AGE * 1000);
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null
+                && (ifNoneMatch.contains(etag) || "*".equals(ifNoneMatch))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType("image/png");
+        response.setContentLength(png.length);
+        response.getOutputStream().write(png);
+    }
+
+    /**
+     * Gets the asset at the given path, loading it on first use.
+     * 
+     * Paths in the {@link AssetManifest manifest} get the hashed file.
+     * 
+     * @param path
+     *            relative to the root, e.g <code>css/font-awesome.min.css</code>
+     * @return the asset, or <code>null</code> if not found or not allowed
+     */
+    Asset getAsset(String path) throws IOException {
+        Asset asset = assets.get(path);
+        if (asset == null) {
+            String contentType = contentType(path);
+            if (contentType == null || path.contains("..")
+                    || path.startsWith("/")) {
+                return null;
+            }
+            String file = manifest != null ? manifest.get(path) : null;
+            if (file == null) {
+                file = path;
+            }
+            if (SPRITE.equals(file)) {
+                asset = new Asset(IconSprite.svg(
+                        EnumSet.allOf(FontAwesome.Icon.class)).getBytes(
+                        "UTF-8"), contentType);
+            } else {
+                byte[] bytes = load(file);
+                if (bytes == null) {
+                    return null;
+                }
+                if (manifest != null && manifest.isHashed(file)) {
+                    asset = new Asset(bytes, contentType, load(file + ".gz"),
+                            load(file + ".deflate"));
+                } else {
+                    asset = new Asset(bytes, contentType);
+                }
+            }
+            Asset existing = assets.putIfAbsent(path, asset);
+            if (existing != null) {
+                asset = existing;
+            }
+        }
+        return asset;
+    }
+
+    private byte[] load(String file) throws IOException {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(
+                root + file);
+        if (in == null) {
+            return null;
+        }
+        try {
+            return read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Tests if an <code>Accept-Encoding</code> header accepts the content
+     * coding: listed, or else matched by <code>*</code>, with a q-value above
+     * 0. <code>gzip;q=0</code> refuses gzip.
+     * 
+     * @param acceptEncoding
+     *            the header, or <code>null</code>
+     * @param coding
+     *            e.g <code>gzip</code>
+     * @return <code>true</code> if the coding may be sent
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        float listed = -1;
+        float any = -1;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String name = parts[0].trim();
+            float q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            boolean alias = "gzip".equals(coding)
+                    && name.equalsIgnoreCase("x-gzip");
+            if (name.equalsIgnoreCase(coding) || alias) {
+                listed = Math.max(listed, q);
+            } else if ("*".equals(name)) {
+                any = q;
+            }
+        }
+        return (listed >= 0 ? listed : any) > 0;
+    }
+
+    static String contentType(String path) {
+        if (path.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        } else if (path.endsWith(".woff")) {
+            return "application/font-woff";
+        } else if (path.endsWith(".woff2")) {
+            return "font/woff2";
+        } else if (path.endsWith(".ttf")) {
+            return "application/x-font-ttf";
+        } else if (path.endsWith(".otf")) {
+            return "application/x-font-opentype";
+        } else if (path.endsWith(".eot")) {
+            return "application/vnd.ms-fontobject";
+        } else if (path.endsWith(".svg")) {
+            return "image/svg+xml";
+        }
+        return null;
+    }
+
+    static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A file with its gzipped and deflated copies, if smaller, and ETag.
+     */
+    static class Asset {
+
+        final byte[] bytes;
+        final byte[] gzip;
+        final byte[] deflate;
+        final String etag;
+        final String gzipEtag;
+        final String deflateEtag;
+        final String contentType;
+
+        Asset(byte[] bytes, String contentType) throws IOException {
+            this(bytes, contentType, smaller(gzip(bytes), bytes), null);
+        }
+
+        /**
+         * An asset with precompressed copies, <code>null</code> if none.
+         */
+        Asset(byte[] bytes, String contentType, byte[] gzip, byte[] deflate) {
+            this.bytes = bytes;
+            this.contentType = contentType;
+            this.gzip = gzip;
+            this.deflate = deflate;
+            // each encoding is a representation of its own, RFC 7232
+            String hash = hash(bytes);
+            etag = "\"" + hash + "\"";
+            gzipEtag = "\"" + hash + "-gz\"";
+            deflateEtag = "\"" + hash + "-df\"";
+        }
+
+        private static byte[] smaller(byte[] compressed, byte[] bytes) {
+            return compressed.length < bytes.length * 9 / 10 ? compressed
+                    : null;
+        }
+
+        static String hash(byte[] bytes) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-1")
+                        .digest(bytes);
+                StringBuilder hex = new StringBuilder(digest.length * 2);
+                for (byte b : digest) {
+                    hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(
+                            Character.forDigit(b & 0xf, 16));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        static byte[] gzip(byte[] bytes) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    bytes.length / 2);
+            GZIPOutputStream gzip = new GZIPOutputStream(out);
+            gzip.write(bytes);
+            gzip.close();
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.porotype.iconfont;
+
+import java.util.Locale;
+
+import javax.servlet.ServletException;
+
+import com.porotype.iconfont.FontAwesomeBootstrapListener.FontDisplay;
+import com.vaadin.server.VaadinServlet;
+
+/**
+ * {@link VaadinServlet} that adds the FontAwesome stylesheet to the bootstrap
+ * page; see {@link FontAwesomeBootstrapListener}. The init parameter
+ * <code>fontDisplay</code>, e.g <code>swap</code>, sets the
+ * {@link FontAwesomeBootstrapListener#setFontDisplay(FontDisplay) font
+ * display}.
+ */
+@SuppressWarnings("serial")
+public class FontAwesomeVaadinServlet extends VaadinServlet {
+
+    @Override
+    protected void servletInitialized() throws ServletException {
+        super.servletInitialized();
+        FontAwesomeBootstrapListener listener = FontAwesomeBootstrapListener
+                .install(getService());
+        String fontDisplay = getInitParameter("fontDisplay");
+        if (fontDisplay != null) {
+            listener.setFontDisplay(FontDisplay.valueOf(fontDisplay
+                    .toUpperCase(Locale.ENGLISH)));
+        }
+    }
+}
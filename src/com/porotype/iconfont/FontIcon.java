@@ -0,0 +1,122 @@
+package com.porotype.iconfont;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.porotype.iconfont.shared.FontIconState;
+import com.vaadin.ui.AbstractComponent;
+
+/**
+ * Component showing one {@link Icon}. Unlike icon HTML in a caption or
+ * label, the state only holds the codepoint and a variant bitmask, and the
+ * client builds the element itself, so changing e.g
+ * {@link IconVariant#SPIN} only sends the new bitmask:
+ *
+ * <pre>
+ * FontIcon busy = new FontIcon(Icon.refresh);
+ * busy.setVariant(IconVariant.SPIN, true);
+ * </pre>
+ * <p>
+ * Needs a widgetset inheriting
+ * <code>com.porotype.iconfont.FontIconWidgetset</code>, and
+ * {@link FontAwesome#load()} for the font.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class FontIcon extends AbstractComponent {
+
+    private Icon icon;
+
+    /**
+     * Creates a component without an icon.
+     */
+    public FontIcon() {
+    }
+
+    /**
+     * Creates a component showing the icon with the given variants.
+     *
+     * @param icon
+     * @param variants
+     */
+    public FontIcon(Icon icon, IconVariant... variants) {
+        setFontIcon(icon);
+        setVariants(IconVariant.mask(variants));
+    }
+
+    @Override
+    protected FontIconState getState() {
+        return (FontIconState) super.getState();
+    }
+
+    @Override
+    protected FontIconState getState(boolean markAsDirty) {
+        return (FontIconState) super.getState(markAsDirty);
+    }
+
+    /**
+     * Sets the icon; not to be confused with
+     * {@link #setIcon(com.vaadin.server.Resource)}, the caption icon.
+     *
+     * @param icon
+     *            the icon, or <code>null</code> for none
+     */
+    public void setFontIcon(Icon icon) {
+        this.icon = icon;
+        int codepoint = icon == null ? 0 : icon.codepoint();
+        if (getState(false).codepoint != codepoint) {
+            getState().codepoint = codepoint;
+        }
+        record();
+    }
+
+    public Icon getFontIcon() {
+        return icon;
+    }
+
+    /**
+     * Sets the {@link IconVariant}s in the given bitmask.
+     *
+     * @param mask
+     *            variant bitmask
+     */
+    public void setVariants(long mask) {
+        IconVariant.checkMask(mask);
+        if (getState(false).variants != mask) {
+            getState().variants = (int) mask;
+        }
+        record();
+    }
+
+    /**
+     * Sets the given {@link IconVariant}s.
+     *
+     * @param variants
+     */
+    public void setVariants(IconVariant... variants) {
+        setVariants(IconVariant.mask(variants));
+    }
+
+    /**
+     * Adds or removes an {@link IconVariant}.
+     *
+     * @param variant
+     * @param enabled
+     */
+    public void setVariant(IconVariant variant, boolean enabled) {
+        long mask = getVariants();
+        setVariants(enabled ? mask | variant.mask() : mask & ~variant.mask());
+    }
+
+    /**
+     * Gets the variant bitmask.
+     */
+    public long getVariants() {
+        return getState(false).variants;
+    }
+
+    private void record() {
+        if (IconUsage.enabled && icon != null) {
+            IconUsage.record(icon, getVariants());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.porotype.iconfont;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.vaadin.server.ExternalResource;
+import com.vaadin.server.Resource;
+import com.vaadin.server.StreamResource;
+
+/**
+ * A PNG rendering of an {@link Icon}, for use where a {@link com.vaadin.server.Resource}
+ * is required, e.g <code>setIcon()</code>:
+ * <code>button.setIcon(new FontIconResource(Icon.save, 16, 0x333333));</code>
+ * <p>
+ * The icons are rendered on the server with Java2D (works headless) using the
+ * font from the <code>org.webjars:font-awesome</code> jar. Rendered images
+ * are kept in a JVM wide cache bounded to {@link #getCacheSize()} bytes,
+ * least recently used first out, and sent with long-lived cache headers.
+ * </p>
+ * <p>
+ * As with any {@link StreamResource}, the URL is scoped to the component and
+ * UI it is set on, so the browser cache only helps when that component loads
+ * the image again; the same icon on another component, or in another
+ * session, is downloaded again. For a URL shared by all, map
+ * {@link FontAwesomeServlet} and use
+ * {@link #shared(Icon, int, int)}.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class FontIconResource extends StreamResource {
+
+    private static final long CACHE_TIME = 365L * 24 * 60 * 60 * 1000;
+
+    /**
+     * Largest size served by {@link FontAwesomeServlet}
+     */
+    static final int MAX_SHARED_SIZE = 512;
+
+    private static volatile String location;
+    /**
+     * Names of the images {@link #shared(Icon, int, int)} has handed out, the
+     * only ones {@link FontAwesomeServlet} renders
+     */
+    private static final Set<String> sharedNames = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private static long cacheSize = 4 * 1024 * 1024;
+    private static long cachedBytes;
+    private static final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<String, byte[]>(
+            64, 0.75f, true);
+
+    private final Icon icon;
+    private final int size;
+    private final int rgb;
+
+    /**
+     * Creates a black icon of the given size.
+     *
+     * @param icon
+     * @param size
+     *            width and height in pixels
+     */
+    public FontIconResource(Icon icon, int size) {
+        this(icon, size, 0);
+    }
+
+    /**
+     * Creates an icon of the given size and color.
+     *
+     * @param icon
+     * @param size
+     *            width and height in pixels
+     * @param rgb
+     *            color, e.g <code>0x333333</code>
+     */
+    public FontIconResource(Icon icon, int size, int rgb) {
+        super(new IconSource(icon, size, rgb & 0xffffff), icon.cssName() + "-"
+                + size + "-" + hex(rgb & 0xffffff) + ".png");
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        this.icon = icon;
+        this.size = size;
+        this.rgb = rgb & 0xffffff;
+        setMIMEType("image/png");
+        setCacheTime(CACHE_TIME);
+    }
+
+    /**
+     * Gets a PNG of the icon with a URL shared by all components and
+     * sessions, so browsers download it once: served by
+     * {@link FontAwesomeServlet}, which sets the {@link #setLocation(String)
+     * location} on init. Without the servlet, or above 512 pixels, a
+     * {@link FontIconResource} is returned.
+     * <p>
+     * The servlet only renders images handed out here, so arbitrary sizes
+     * and colors can not be requested to fill the cache.
+     * </p>
+     *
+     * @param icon
+     * @param size
+     *            width and height in pixels
+     * @param rgb
+     *            color, e.g <code>0x333333</code>
+     * @return the resource
+     */
+    public static Resource shared(Icon icon, int size, int rgb) {
+        String location = FontIconResource.location;
+        if (location == null || size > MAX_SHARED_SIZE) {
+            return new FontIconResource(icon, size, rgb);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        String name = Integer.toHexString(icon.codepoint()) + "-" + size
+                + "-" + hex(rgb & 0xffffff) + ".png";
+        sharedNames.add(name);
+        return new ExternalResource(location + name, "image/png");
+    }
+
+    /**
+     * Tests if {@link #shared(Icon, int, int)} has handed out the image name,
+     * e.g <code>f000-16-333333.png</code>.
+     */
+    static boolean isShared(String name) {
+        return sharedNames.contains(name);
+    }
+
+    /**
+     * Sets the base URL {@link #shared(Icon, int, int)} uses, e.g
+     * <code>/myapp/font-awesome/png/</code>.
+     *
+     * @param url
+     *            the URL, or <code>null</code> for none
+     */
+    public static void setLocation(String url) {
+        location = url;
+    }
+
+    public static String getLocation() {
+        return location;
+    }
+
+    public Icon getFontIcon() {
+        return icon;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getColor() {
+        return rgb;
+    }
+
+    /**
+     * Gets the PNG image, rendering it unless cached.
+     *
+     * @return PNG bytes
+     */
+    public byte[] getBytes() {
+        return png(icon, size, rgb);
+    }
+
+    /**
+     * Sets the maximum number of bytes of rendered images to keep, default
+     * 4MB.
+     *
+     * @param bytes
+     */
+    public static void setCacheSize(long bytes) {
+        synchronized (cache) {
+            cacheSize = bytes;
+            evict();
+        }
+    }
+
+    public static long getCacheSize() {
+        synchronized (cache) {
+            return cacheSize;
+        }
+    }
+
+    static byte[] png(Icon icon, int size, int rgb) {
+        // by codepoint, so aliases share the image
+        String key = icon.codepoint() + "/" + size + "/" + rgb;
+        byte[] png;
+        synchronized (cache) {
+            png = cache.get(key);
+        }
+        if (png != null) {
+            return png;
+        }
+        // rendered outside the lock; a concurrent miss renders twice
+        png = render(icon, size, rgb);
+        synchronized (cache) {
+            if (!cache.containsKey(key) && png.length <= cacheSize) {
+                cache.put(key, png);
+                cachedBytes += png.length;
+                evict();
+            }
+        }
+        return png;
+    }
+
+    private static void evict() {
+        for (Iterator<byte[]> i = cache.values().iterator(); cachedBytes > cacheSize
+                && i.hasNext();) {
+            cachedBytes -= i.next().length;
+            i.remove();
+        }
+    }
+
+    /**
+     * Renders the glyph centered in a square image, scaled down if wider
+     * than the square.
+     */
+    private static byte[] render(Icon icon, int size, int rgb) {
+        BufferedImage image = new BufferedImage(size, size,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                    RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            GlyphVector glyph = BundledFont.get().deriveFont((float) size)
+                    .createGlyphVector(g.getFontRenderContext(),
+                            icon.glyph());
+            Rectangle2D bounds = glyph.getLogicalBounds();
+            double scale = Math.min(1, size / bounds.getWidth());
+            g.translate(size / 2.0, size / 2.0);
+            g.scale(scale, scale);
+            g.setColor(new Color(rgb));
+            g.fill(glyph.getOutline((float) -bounds.getCenterX(),
+                    (float) -bounds.getCenterY()));
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hex(int rgb) {
+        String hex = Integer.toHexString(rgb);
+        return "000000".substring(hex.length()) + hex;
+    }
+
+    private static class IconSource implements StreamSource {
+
+        private final Icon icon;
+        private final int size;
+        private final int rgb;
+
+        IconSource(Icon icon, int size, int rgb) {
+            this.icon = icon;
+            this.size = size;
+            this.rgb = rgb;
+        }
+
+        @Override
+        public InputStream getStream() {
+            return new ByteArrayInputStream(png(icon, size, rgb));
+        }
+    }
+}
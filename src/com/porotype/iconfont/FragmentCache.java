@@ -0,0 +1,123 @@
+package com.porotype.iconfont;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of HTML fragments, or other values, by a positive
+ * <code>long</code> key, e.g variant bitmask * icon count + ordinal, without
+ * boxing the key: an open addressed table in atomic arrays.
+ * <p>
+ * Lookups are lock free and do not allocate. Inserts are synchronized, as
+ * there is only one per key, and grow the table by copying it.
+ * </p>
+ */
+final class FragmentCache<V> {
+
+    private final int maximumSize;
+    private volatile Table<V> table;
+    private volatile int size;
+
+    FragmentCache(int maximumSize) {
+        this(64, maximumSize);
+    }
+
+    /**
+     * @param initialCapacity
+     *            initial table size, a power of two
+     * @param maximumSize
+     */
+    FragmentCache(int initialCapacity, int maximumSize) {
+        this.maximumSize = maximumSize;
+        table = new Table<V>(initialCapacity);
+    }
+
+    /**
+     * Gets the cached fragment.
+     *
+     * @param key
+     *            positive key
+     * @return the fragment, or <code>null</code> if not cached
+     */
+    V get(long key) {
+        return table.get(key);
+    }
+
+    /**
+     * Caches the fragment, unless the key is cached already or the cache is
+     * full.
+     *
+     * @param key
+     *            positive key
+     * @param fragment
+     * @return the cached fragment, or the given one if the cache is full
+     */
+    synchronized V putIfAbsent(long key, V fragment) {
+        Table<V> table = this.table;
+        V existing = table.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (size >= maximumSize) {
+            return fragment;
+        }
+        // at most half full, so probing always ends at an empty slot
+        if ((size + 1) * 2 > table.keys.length()) {
+            Table<V> grown = new Table<V>(table.keys.length() * 2);
+            for (int i = 0; i < table.keys.length(); i++) {
+                if (table.keys.get(i) != 0) {
+                    grown.put(table.keys.get(i), table.values.get(i));
+                }
+            }
+            this.table = table = grown;
+        }
+        table.put(key, fragment);
+        size++;
+        return fragment;
+    }
+
+    boolean isFull() {
+        return size >= maximumSize;
+    }
+
+    private static class Table<V> {
+
+        /**
+         * Keys, 0 for an empty slot; written after the value
+         */
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<V> values;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<V>(capacity);
+        }
+
+        V get(long key) {
+            int last = keys.length() - 1;
+            for (int i = slot(key, last);; i = (i + 1) & last) {
+                long k = keys.get(i);
+                if (k == key) {
+                    return values.get(i);
+                } else if (k == 0) {
+                    return null;
+                }
+            }
+        }
+
+        void put(long key, V fragment) {
+            int last = keys.length() - 1;
+            int i = slot(key, last);
+            while (keys.get(i) != 0) {
+                i = (i + 1) & last;
+            }
+            values.set(i, fragment);
+            keys.set(i, key);
+        }
+
+        private static int slot(long key, int last) {
+            int hash = (int) (key ^ key >>> 32) * 0x9e3779b9;
+            return (hash ^ hash >>> 16) & last;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.porotype.iconfont;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * Renders many icons at once, e.g an icon column of a large table.
+ * <p>
+ * Add (icon, variants) or (icon, variants, text) items, then render them all
+ * with {@link #toArray()}, or into one buffer with
+ * {@link #appendTo(StringBuilder, CharSequence)}. Each distinct icon and
+ * variant pair is rendered once per batch; items without text share the same
+ * string instance. Large batches are rendered in parallel by
+ * {@link #toArray()}, using fork/join.
+ * </p>
+ * <p>
+ * A batch is not thread safe; rendering does not change it, and it can be
+ * rendered several times.
+ * </p>
+ *
+ * <pre>
+ * IconBatch batch = new IconBatch(rows.size());
+ * for (Row row : rows) {
+ *     batch.add(row.isOk() ? Icon.check : Icon.times, 0, row.getName());
+ * }
+ * String[] cells = batch.toArray();
+ * </pre>
+ */
+public final class IconBatch {
+
+    /**
+     * Batches at least this size are rendered in parallel
+     */
+    static final int PARALLEL_THRESHOLD = 16 * 1024;
+
+    private static final int ICON_COUNT = Icon.values().length;
+
+    private int size;
+    /**
+     * Distinct pair index of each item
+     */
+    private int[] items;
+    private String[] texts;
+
+    /**
+     * Distinct pairs, by index: icon, mask and number of items
+     */
+    private Icon[] icons = new Icon[8];
+    private long[] masks = new long[8];
+    private long[] uses = new long[8];
+    private int distinct;
+
+    /**
+     * Open addressing table from pair key to distinct index + 1
+     */
+    private long[] tableKeys = new long[16];
+    private int[] tableValues = new int[16];
+
+    public IconBatch() {
+        this(64);
+    }
+
+    /**
+     * Creates a batch for about the given number of items.
+     *
+     * @param capacity
+     */
+    public IconBatch(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds the icon.
+     *
+     * @param icon
+     * @return this batch
+     */
+    public IconBatch add(Icon icon) {
+        return add(icon, 0, null);
+    }
+
+    /**
+     * Adds the icon with the {@link IconVariant}s in the given bitmask.
+     *
+     * @param icon
+     * @param mask
+     *            variant bitmask
+     * @return this batch
+     */
+    public IconBatch add(Icon icon, long mask) {
+        return add(icon, mask, null);
+    }
+
+    /**
+     * Adds the icon with the {@link IconVariant}s in the given bitmask,
+     * followed by the given text (HTML).
+     *
+     * @param icon
+     * @param mask
+     *            variant bitmask
+     * @param text
+     *            appended as is after the icon, or <code>null</code>
+     * @return this batch
+     */
+    public IconBatch add(Icon icon, long mask, String text) {
+        IconVariant.checkMask(mask);
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            if (texts != null) {
+                texts = Arrays.copyOf(texts, items.length);
+            }
+        }
+        if (text != null) {
+            if (texts == null) {
+                texts = new String[items.length];
+            }
+            texts[size] = text;
+        }
+        items[size++] = pair(icon, mask);
+        return this;
+    }
+
+    /**
+     * Gets the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct icon and variant pairs.
+     */
+    public int distinct() {
+        return distinct;
+    }
+
+    /**
+     * Renders the items, using the default fork/join pool for large batches.
+     *
+     * @return the HTML of each item, in order
+     */
+    public String[] toArray() {
+        return toArray(size >= PARALLEL_THRESHOLD ? PoolHolder.POOL : null);
+    }
+
+    /**
+     * Renders the items using the given fork/join pool.
+     *
+     * @param pool
+     *            pool to use, or <code>null</code> to render in this thread
+     * @return the HTML of each item, in order
+     */
+    public String[] toArray(ForkJoinPool pool) {
+        String[] fragments = fragments();
+        String[] html = new String[size];
+        Render render = new Render(fragments, html, 0, size);
+        if (pool == null) {
+            render.compute();
+        } else {
+            pool.invoke(render);
+        }
+        return html;
+    }
+
+    /**
+     * Renders the items into the given builder.
+     *
+     * @param sb
+     * @param separator
+     *            appended between items, or <code>null</code>
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder sb, CharSequence separator) {
+        String[] fragments = fragments();
+        int length = separator == null ? 0 : separator.length()
+                * Math.max(size - 1, 0);
+        for (int i = 0; i < size; i++) {
+            length += fragments[items[i]].length();
+            if (texts != null && texts[i] != null) {
+                length += texts[i].length();
+            }
+        }
+        sb.ensureCapacity(sb.length() + length);
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && separator != null) {
+                sb.append(separator);
+            }
+            sb.append(fragments[items[i]]);
+            if (texts != null && texts[i] != null) {
+                sb.append(texts[i]);
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Renders the items to the given output, e.g a <code>Writer</code>.
+     *
+     * @param out
+     * @param separator
+     *            appended between items, or <code>null</code>
+     * @return the output
+     * @throws IOException
+     */
+    public Appendable appendTo(Appendable out, CharSequence separator)
+            throws IOException {
+        String[] fragments = fragments();
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && separator != null) {
+                out.append(separator);
+            }
+            out.append(fragments[items[i]]);
+            if (texts != null && texts[i] != null) {
+                out.append(texts[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Renders each distinct pair once, recording the usage of all items.
+     */
+    private String[] fragments() {
+        String[] fragments = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            fragments[i] = icons[i].fragment(masks[i]);
+            if (IconUsage.enabled) {
+                IconUsage.record(icons[i], masks[i], uses[i]);
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * Gets the distinct index of the pair, adding it if new.
+     */
+    private int pair(Icon icon, long mask) {
+        long key = mask * ICON_COUNT + icon.ordinal();
+        int slot = slot(key);
+        int index = tableValues[slot] - 1;
+        if (index < 0) {
+            index = distinct++;
+            if (index == icons.length) {
+                icons = Arrays.copyOf(icons, index * 2);
+                masks = Arrays.copyOf(masks, index * 2);
+                uses = Arrays.copyOf(uses, index * 2);
+            }
+            icons[index] = icon;
+            masks[index] = mask;
+            tableKeys[slot] = key;
+            tableValues[slot] = index + 1;
+            if (distinct * 2 > tableKeys.length) {
+                rehash();
+            }
+        }
+        uses[index]++;
+        return index;
+    }
+
+    private int slot(long key) {
+        int mask = tableKeys.length - 1;
+        int slot = (int) (key ^ key >>> 32) * 0x9E3779B9 & mask;
+        while (tableValues[slot] != 0 && tableKeys[slot] != key) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = tableKeys;
+        int[] oldValues = tableValues;
+        tableKeys = new long[oldKeys.length * 2];
+        tableValues = new int[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                tableKeys[slot] = oldKeys[i];
+                tableValues[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Renders a range of the items, splitting it while large
+     */
+    @SuppressWarnings("serial")
+    private class Render extends RecursiveAction {
+
+        private final String[] fragments;
+        private final String[] html;
+        private final int from;
+        private final int to;
+
+        Render(String[] fragments, String[] html, int from, int to) {
+            this.fragments = fragments;
+            this.html = html;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD / 4 && getPool() != null) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Render(fragments, html, from, middle),
+                        new Render(fragments, html, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                String fragment = fragments[items[i]];
+                String text = texts == null ? null : texts[i];
+                html[i] = text == null ? fragment : fragment.concat(text);
+            }
+        }
+    }
+
+    /**
+     * Shared pool for parallel rendering, created on first use
+     */
+    private static class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
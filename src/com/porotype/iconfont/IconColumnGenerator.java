@@ -0,0 +1,114 @@
+package com.porotype.iconfont;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.vaadin.data.Property;
+import com.vaadin.ui.Table;
+import com.vaadin.ui.Table.Align;
+import com.vaadin.ui.Table.CellStyleGenerator;
+import com.vaadin.ui.Table.ColumnGenerator;
+
+/**
+ * Table column showing an icon for the value of a property, without a
+ * component per cell:
+ *
+ * <pre>
+ * new IconColumnGenerator&lt;String&gt;(&quot;status&quot;, status).addTo(table, &quot;statusIcon&quot;);
+ * </pre>
+ * <p>
+ * Table cells are plain text, so the cells are the shared
+ * {@link FontAwesome.Icon#glyph() glyphs} of the {@link IconConverter}
+ * mappings, shown in the icon font with a cell style. Of the variants, only
+ * {@link IconVariant#SPIN} is supported in cells.
+ * </p>
+ *
+ * @param <T>
+ *            the property value type
+ */
+@SuppressWarnings("serial")
+public class IconColumnGenerator<T> implements ColumnGenerator,
+        CellStyleGenerator {
+
+    /**
+     * Cell style of the icon columns, the {@link FontAwesome#GLYPH_STYLENAME}
+     */
+    public static final String CELL_STYLE = FontAwesome.GLYPH_STYLENAME;
+    /**
+     * Cell style of the icon columns for spinning icons
+     */
+    public static final String SPIN_CELL_STYLE = CELL_STYLE + "-spin";
+
+    /**
+     * The cell style rules, added by {@link FontAwesome#load()}
+     */
+    static final String CSS = ".v-table-cell-content-" + CELL_STYLE
+            + ",.v-table-cell-content-" + SPIN_CELL_STYLE
+            + "{font-family:FontAwesome}.v-table-cell-content-"
+            + SPIN_CELL_STYLE
+            + " .v-table-cell-wrapper{-webkit-animation:fa-spin 2s infinite linear;animation:fa-spin 2s infinite linear}";
+
+    private final Object propertyId;
+    private final IconConverter<T> converter;
+    private final Set<Object> columns = new HashSet<Object>();
+    private CellStyleGenerator styles;
+
+    /**
+     * Creates a generator for the given property, converting its values with
+     * the given converter.
+     *
+     * @param propertyId
+     * @param converter
+     */
+    public IconColumnGenerator(Object propertyId, IconConverter<T> converter) {
+        this.propertyId = propertyId;
+        this.converter = converter;
+    }
+
+    /**
+     * Adds a centered icon column to the table, and sets the cell styles of
+     * the icon columns; other columns keep the styles of the table's previous
+     * {@link CellStyleGenerator}.
+     *
+     * @param table
+     * @param columnId
+     *            id of the generated column
+     * @return this generator
+     */
+    public IconColumnGenerator<T> addTo(Table table, Object columnId) {
+        table.addGeneratedColumn(columnId, this);
+        table.setColumnAlignment(columnId, Align.CENTER);
+        columns.add(columnId);
+        if (table.getCellStyleGenerator() != this) {
+            styles = table.getCellStyleGenerator();
+            table.setCellStyleGenerator(this);
+        }
+        return this;
+    }
+
+    @Override
+    public Object generateCell(Table source, Object itemId, Object columnId) {
+        return converter.getGlyph(value(source, itemId));
+    }
+
+    @Override
+    public String getStyle(Table source, Object itemId, Object propertyId) {
+        if (propertyId != null && columns.contains(propertyId)) {
+            T value = value(source, itemId);
+            if (converter.getIcon(value) == null) {
+                return null;
+            }
+            return (converter.getMask(value) & IconVariant.SPIN.mask()) != 0 ? SPIN_CELL_STYLE
+                    : CELL_STYLE;
+        }
+        return styles == null ? null : styles.getStyle(source, itemId,
+                propertyId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(Table source, Object itemId) {
+        Property<?> property = source.getContainerProperty(itemId, propertyId);
+        return property == null ? null : (T) property.getValue();
+    }
+}
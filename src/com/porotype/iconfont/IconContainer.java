@@ -0,0 +1,272 @@
+package com.porotype.iconfont;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.vaadin.data.Container;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+import com.vaadin.data.util.ObjectProperty;
+import com.vaadin.data.util.filter.SimpleStringFilter;
+import com.vaadin.data.util.filter.UnsupportedFilterException;
+
+/**
+ * Read-only {@link Container} with all {@link Icon}s, filtered through
+ * {@link IconSearch}, e.g for an icon picker {@link com.vaadin.ui.ComboBox}.
+ * <p>
+ * The container has a single property, {@link #CAPTION}, and supports the
+ * {@link SimpleStringFilter} the ComboBox uses for its filter, so the
+ * ComboBox only fetches the visible page of matches:
+ * </p>
+ * <p>
+ * <code>
+ * ComboBox icon = new ComboBox("Icon", new IconContainer());<br/>
+ * icon.setItemCaptionPropertyId(IconContainer.CAPTION);<br/>
+ * icon.setFilteringMode(FilteringMode.CONTAINS);
+ * </code>
+ * </p>
+ * <p>
+ * Prefix filters, as used with <code>FilteringMode.STARTSWITH</code>, use
+ * {@link IconSearch#prefix(String)}, other filters
+ * {@link IconSearch#search(String)}.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class IconContainer implements Container.Indexed, Container.Filterable {
+
+    /**
+     * Property id of the icon name caption.
+     */
+    public static final String CAPTION = "caption";
+
+    private static final List<Icon> ALL = Collections.unmodifiableList(Arrays
+            .asList(Icon.values()));
+
+    private List<Icon> icons = ALL;
+    private SimpleStringFilter filter;
+
+    @Override
+    public Item getItem(Object itemId) {
+        return containsId(itemId) ? new IconItem((Icon) itemId) : null;
+    }
+
+    @Override
+    public Collection<?> getContainerPropertyIds() {
+        return Collections.singletonList(CAPTION);
+    }
+
+    @Override
+    public List<Icon> getItemIds() {
+        return icons;
+    }
+
+    @Override
+    public Property<?> getContainerProperty(Object itemId, Object propertyId) {
+        if (!CAPTION.equals(propertyId) || !containsId(itemId)) {
+            return null;
+        }
+        return caption((Icon) itemId);
+    }
+
+    @Override
+    public Class<?> getType(Object propertyId) {
+        return CAPTION.equals(propertyId) ? String.class : null;
+    }
+
+    @Override
+    public int size() {
+        return icons.size();
+    }
+
+    @Override
+    public boolean containsId(Object itemId) {
+        if (!(itemId instanceof Icon)) {
+            return false;
+        }
+        return filter == null || icons.contains(itemId);
+    }
+
+    @Override
+    public int indexOfId(Object itemId) {
+        if (!(itemId instanceof Icon)) {
+            return -1;
+        }
+        return filter == null ? ((Icon) itemId).ordinal() : icons
+                .indexOf(itemId);
+    }
+
+    @Override
+    public Icon getIdByIndex(int index) {
+        return icons.get(index);
+    }
+
+    @Override
+    public List<Icon> getItemIds(int startIndex, int numberOfItems) {
+        if (startIndex < 0) {
+            throw new IndexOutOfBoundsException("Start index cannot be negative: "
+                    + startIndex);
+        }
+        int end = Math.min(startIndex + numberOfItems, icons.size());
+        return icons.subList(Math.min(startIndex, end), end);
+    }
+
+    @Override
+    public Icon nextItemId(Object itemId) {
+        int i = indexOfId(itemId);
+        return i < 0 || i + 1 >= icons.size() ? null : icons.get(i + 1);
+    }
+
+    @Override
+    public Icon prevItemId(Object itemId) {
+        int i = indexOfId(itemId);
+        return i < 1 ? null : icons.get(i - 1);
+    }
+
+    @Override
+    public Icon firstItemId() {
+        return icons.isEmpty() ? null : icons.get(0);
+    }
+
+    @Override
+    public Icon lastItemId() {
+        return icons.isEmpty() ? null : icons.get(icons.size() - 1);
+    }
+
+    @Override
+    public boolean isFirstId(Object itemId) {
+        return itemId != null && itemId == firstItemId();
+    }
+
+    @Override
+    public boolean isLastId(Object itemId) {
+        return itemId != null && itemId == lastItemId();
+    }
+
+    /**
+     * Filters the icons with a {@link SimpleStringFilter} on {@link #CAPTION};
+     * only one filter can be active at a time.
+     */
+    @Override
+    public void addContainerFilter(Filter filter)
+            throws UnsupportedFilterException {
+        if (!(filter instanceof SimpleStringFilter)
+                || !filter.appliesToProperty(CAPTION)) {
+            throw new UnsupportedFilterException(
+                    "Only SimpleStringFilter on the caption is supported");
+        }
+        this.filter = (SimpleStringFilter) filter;
+        String query = this.filter.getFilterString();
+        icons = this.filter.isOnlyMatchPrefix() ? IconSearch.prefix(query)
+                : IconSearch.search(query);
+    }
+
+    @Override
+    public void removeContainerFilter(Filter filter) {
+        if (filter != null && filter.equals(this.filter)) {
+            removeAllContainerFilters();
+        }
+    }
+
+    @Override
+    public void removeAllContainerFilters() {
+        filter = null;
+        icons = ALL;
+    }
+
+    @Override
+    public Collection<Filter> getContainerFilters() {
+        return filter == null ? Collections.<Filter> emptyList()
+                : Collections.<Filter> singletonList(filter);
+    }
+
+    @Override
+    public Item addItem(Object itemId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object addItem() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeItem(Object itemId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addContainerProperty(Object propertyId, Class<?> type,
+            Object defaultValue) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeContainerProperty(Object propertyId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAllItems() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object addItemAfter(Object previousItemId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Item addItemAfter(Object previousItemId, Object newItemId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object addItemAt(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Item addItemAt(int index, Object newItemId) {
+        throw new UnsupportedOperationException();
+    }
+
+    private static Property<String> caption(Icon icon) {
+        return new ObjectProperty<String>(icon.name(), String.class, true);
+    }
+
+    /**
+     * Read-only item for one {@link Icon}.
+     */
+    private static class IconItem implements Item {
+
+        private final Icon icon;
+
+        IconItem(Icon icon) {
+            this.icon = icon;
+        }
+
+        @Override
+        public Property<?> getItemProperty(Object id) {
+            return CAPTION.equals(id) ? caption(icon) : null;
+        }
+
+        @Override
+        public Collection<?> getItemPropertyIds() {
+            return Collections.singletonList(CAPTION);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public boolean addItemProperty(Object id, Property property) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeItemProperty(Object id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.porotype.iconfont;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.vaadin.data.util.converter.Converter;
+
+/**
+ * Converts values to icon HTML, e.g a status to a spinning
+ * {@link Icon#refresh} or a {@link Icon#check}:
+ *
+ * <pre>
+ * IconConverter&lt;String&gt; status = new IconConverter&lt;String&gt;(String.class)
+ *         .map(&quot;running&quot;, Icon.refresh, IconVariant.SPIN)
+ *         .map(&quot;done&quot;, Icon.check).setDefault(Icon.question);
+ * label.setConverter(status);
+ * </pre>
+ * <p>
+ * The HTML of each mapping is rendered when it is added, so converting is a
+ * map lookup returning a shared string. Values without a mapping, and
+ * <code>null</code>, convert to the default icon, or an empty string if there
+ * is none. For Tables, see {@link IconColumnGenerator}.
+ * </p>
+ * <p>
+ * The mappings are serialized as {@link IconRef}s, without the HTML.
+ * </p>
+ *
+ * @param <T>
+ *            the value type
+ */
+@SuppressWarnings("serial")
+public class IconConverter<T> implements Converter<String, T> {
+
+    private final Class<T> modelType;
+    private final Map<T, Mapping> mappings = new HashMap<T, Mapping>();
+    /**
+     * Mapped values by HTML, rebuilt on deserialization
+     */
+    private transient Map<String, T> values = new HashMap<String, T>();
+    private Mapping defaultMapping;
+
+    /**
+     * Creates a converter without mappings.
+     *
+     * @param modelType
+     *            the value type
+     */
+    public IconConverter(Class<T> modelType) {
+        this.modelType = modelType;
+    }
+
+    /**
+     * Maps the value to the icon with the given variants.
+     *
+     * @param value
+     * @param icon
+     * @param variants
+     * @return this converter
+     */
+    public IconConverter<T> map(T value, Icon icon, IconVariant... variants) {
+        Mapping mapping = new Mapping(icon, IconVariant.mask(variants));
+        mappings.put(value, mapping);
+        values.put(mapping.html, value);
+        return this;
+    }
+
+    /**
+     * Sets the icon for values without a mapping.
+     *
+     * @param icon
+     *            icon, or <code>null</code> for none
+     * @param variants
+     * @return this converter
+     */
+    public IconConverter<T> setDefault(Icon icon, IconVariant... variants) {
+        defaultMapping = icon == null ? null : new Mapping(icon,
+                IconVariant.mask(variants));
+        return this;
+    }
+
+    /**
+     * Gets the icon for the value.
+     *
+     * @param value
+     * @return the mapped or default icon, or <code>null</code>
+     */
+    public Icon getIcon(T value) {
+        Mapping mapping = mapping(value);
+        return mapping == null ? null : mapping.ref.getIcon();
+    }
+
+    /**
+     * Gets the variant bitmask for the value.
+     *
+     * @param value
+     * @return the mapped or default variants
+     */
+    public long getMask(T value) {
+        Mapping mapping = mapping(value);
+        return mapping == null ? 0 : mapping.ref.getMask();
+    }
+
+    /**
+     * Gets the {@link Icon#glyph() glyph} for the value, for plain text.
+     *
+     * @param value
+     * @return the glyph, or an empty string if there is no icon
+     */
+    public String getGlyph(T value) {
+        Mapping mapping = mapping(value);
+        if (mapping == null) {
+            return "";
+        }
+        return mapping.ref.getIcon().glyph();
+    }
+
+    @Override
+    public String convertToPresentation(T value,
+            Class<? extends String> targetType, Locale locale)
+            throws ConversionException {
+        Mapping mapping = mapping(value);
+        if (mapping == null) {
+            return "";
+        }
+        if (IconUsage.enabled) {
+            IconUsage.record(mapping.ref.getIcon(), mapping.ref.getMask());
+        }
+        return mapping.html;
+    }
+
+    /**
+     * Converts mapped icon HTML back to its value; the default icon and
+     * empty strings convert to <code>null</code>.
+     */
+    @Override
+    public T convertToModel(String value, Class<? extends T> targetType,
+            Locale locale) throws ConversionException {
+        if (value == null || value.isEmpty()
+                || defaultMapping != null && defaultMapping.html.equals(value)) {
+            return null;
+        }
+        T model = values.get(value);
+        if (model == null) {
+            throw new ConversionException("Not a mapped icon: " + value);
+        }
+        return model;
+    }
+
+    @Override
+    public Class<T> getModelType() {
+        return modelType;
+    }
+
+    @Override
+    public Class<String> getPresentationType() {
+        return String.class;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        values = new HashMap<String, T>();
+        for (Map.Entry<T, Mapping> entry : mappings.entrySet()) {
+            values.put(entry.getValue().html, entry.getKey());
+        }
+    }
+
+    private Mapping mapping(T value) {
+        Mapping mapping = value == null ? null : mappings.get(value);
+        return mapping == null ? defaultMapping : mapping;
+    }
+
+    /**
+     * An icon, variants and their pre-rendered HTML
+     */
+    private static class Mapping implements Serializable {
+
+        final IconRef ref;
+        transient String html;
+
+        Mapping(Icon icon, long mask) {
+            ref = IconRef.of(icon, mask);
+            html = ref.html();
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException,
+                ClassNotFoundException {
+            in.defaultReadObject();
+            html = ref.html();
+        }
+    }
+}
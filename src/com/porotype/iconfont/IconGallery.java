@@ -0,0 +1,177 @@
+package com.porotype.iconfont;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.vaadin.annotations.JavaScript;
+import com.vaadin.ui.AbstractJavaScriptComponent;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.JavaScriptFunction;
+import com.vaadin.util.ReflectTools;
+
+/**
+ * Scrollable grid of {@link Icon}s with their names, rendered as a single
+ * component.
+ * <p>
+ * Only the rows scrolled into view are fetched, a page at a time, as plain
+ * HTML, so the gallery costs one server-side component regardless of the
+ * number of icons. The icon and its name are shown as an HTML tooltip, and
+ * clicks on any icon are reported to {@link IconClickListener}s.
+ * </p>
+ * <p>
+ * No widgetset is needed, but the gallery needs a height, by default
+ * <code>400px</code>.
+ * </p>
+ */
+@SuppressWarnings("serial")
+@JavaScript("icongallery_connector.js")
+public class IconGallery extends AbstractJavaScriptComponent {
+
+    private static final int ROW_HEIGHT = 24;
+    private static final int PAGE_ROWS = 20;
+
+    private final Icon[] icons;
+
+    /**
+     * Creates a gallery with all icons, 8 per row.
+     */
+    public IconGallery() {
+        this(Arrays.asList(Icon.values()), 8);
+    }
+
+    /**
+     * Creates a gallery with the given icons.
+     * 
+     * @param icons
+     * @param columns
+     *            icons per row
+     */
+    public IconGallery(List<Icon> icons, int columns) {
+        if (columns < 1) {
+            throw new IllegalArgumentException("At least one column needed");
+        }
+        this.icons = icons.toArray(new Icon[icons.size()]);
+        getState().columns = columns;
+        getState().rows = (this.icons.length + columns - 1) / columns;
+        getState().rowHeight = ROW_HEIGHT;
+        getState().pageRows = PAGE_ROWS;
+        setWidth("100%");
+        setHeight("400px");
+
+        addFunction("fetchRows", new JavaScriptFunction() {
+            @Override
+            public void call(JSONArray arguments) throws JSONException {
+                int first = arguments.getInt(0);
+                int count = arguments.getInt(1);
+                // echoed, so the client can drop replies from before a reset
+                int generation = arguments.getInt(2);
+                callFunction("setRows", generation, first,
+                        renderRows(first, count));
+            }
+        });
+        addFunction("select", new JavaScriptFunction() {
+            @Override
+            public void call(JSONArray arguments) throws JSONException {
+                int index = arguments.getInt(0);
+                if (index >= 0 && index < IconGallery.this.icons.length) {
+                    getState().selected = index;
+                    fireEvent(new IconClickEvent(IconGallery.this,
+                            IconGallery.this.icons[index]));
+                }
+            }
+        });
+    }
+
+    /**
+     * Renders the given rows as HTML, one <code>div</code> per row. The
+     * range comes from the client, so it is clamped to the existing rows
+     * before it is multiplied, which could overflow, and to one page.
+     */
+    String renderRows(int first, int count) {
+        IconGalleryState state = getState(false);
+        int columns = state.columns;
+        first = Math.min(Math.max(0, first), state.rows);
+        count = Math.min(Math.max(0, count),
+                Math.min(state.pageRows, state.rows - first));
+        int from = first * columns;
+        int to = Math.min(icons.length, (first + count) * columns);
+        StringBuilder html = new StringBuilder(Math.max(0, to - from) * 80);
+        for (int i = from; i < to; i++) {
+            if (i % columns == 0) {
+                html.append("<div class=\"icongallery-row\">");
+            }
+            html.append("<div class=\"icongallery-cell\" data-index=\"")
+                    .append(i).append("\">");
+            icons[i].appendTo(html).append(' ').append(icons[i].name())
+                    .append("</div>");
+            if (i % columns == columns - 1 || i == to - 1) {
+                html.append("</div>");
+            }
+        }
+        return html.toString();
+    }
+
+    /**
+     * Gets the selected (last clicked) icon.
+     * 
+     * @return the selected icon, or <code>null</code>
+     */
+    public Icon getSelected() {
+        int selected = getState(false).selected;
+        return selected < 0 ? null : icons[selected];
+    }
+
+    public void addIconClickListener(IconClickListener listener) {
+        addListener(IconClickEvent.class, listener,
+                IconClickListener.ICON_CLICK_METHOD);
+    }
+
+    public void removeIconClickListener(IconClickListener listener) {
+        removeListener(IconClickEvent.class, listener,
+                IconClickListener.ICON_CLICK_METHOD);
+    }
+
+    @Override
+    protected IconGalleryState getState() {
+        return (IconGalleryState) super.getState();
+    }
+
+    @Override
+    protected IconGalleryState getState(boolean markAsDirty) {
+        return (IconGalleryState) super.getState(markAsDirty);
+    }
+
+    /**
+     * Event fired when an icon in the gallery is clicked.
+     */
+    public static class IconClickEvent extends Component.Event {
+
+        private final Icon icon;
+
+        public IconClickEvent(IconGallery source, Icon icon) {
+            super(source);
+            this.icon = icon;
+        }
+
+        /**
+         * @return the clicked icon
+         */
+        public Icon getIcon() {
+            return icon;
+        }
+    }
+
+    public interface IconClickListener extends Serializable {
+
+        static final Method ICON_CLICK_METHOD = ReflectTools.findMethod(
+                IconClickListener.class, "iconClick", IconClickEvent.class);
+
+        public void iconClick(IconClickEvent event);
+    }
+}
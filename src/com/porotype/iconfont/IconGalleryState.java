@@ -0,0 +1,31 @@
+package com.porotype.iconfont;
+
+import com.vaadin.shared.ui.JavaScriptComponentState;
+
+/**
+ * Shared state for {@link IconGallery}.
+ */
+@SuppressWarnings("serial")
+public class IconGalleryState extends JavaScriptComponentState {
+
+    /**
+     * Icons per row
+     */
+    public int columns;
+    /**
+     * Total number of rows
+     */
+    public int rows;
+    /**
+     * Row height, in pixels
+     */
+    public int rowHeight;
+    /**
+     * Rows fetched from the server at a time
+     */
+    public int pageRows;
+    /**
+     * Index of the selected icon, or -1
+     */
+    public int selected = -1;
+}
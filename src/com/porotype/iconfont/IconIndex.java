@@ -0,0 +1,149 @@
+package com.porotype.iconfont;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+
+/**
+ * Lookup tables for {@link Icon}s by Java name, CSS name and codepoint, built
+ * once on first use.
+ * <p>
+ * The name tables use open addressing with a load factor of at most 0.5, and
+ * hash the key chars directly, so lookups do not allocate, even when a prefix
+ * such as <code>fa-</code> is skipped. Codepoints are dense, so they index an
+ * array directly.
+ * </p>
+ */
+final class IconIndex {
+
+    private static final String STYLENAME_PREFIX = "fa fa-";
+    private static final String CSS_PREFIX = "fa-";
+    private static final String RESERVED_SUFFIX = "_FI";
+
+    private static final IconIndex NAMES;
+    private static final IconIndex CSS_NAMES;
+    private static final int MIN_CODEPOINT;
+    private static final Set<Icon>[] CODEPOINTS;
+
+    static {
+        Icon[] icons = Icon.values();
+        String[] names = new String[icons.length];
+        String[] cssNames = new String[icons.length];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < icons.length; i++) {
+            names[i] = icons[i].name();
+            cssNames[i] = icons[i].cssName();
+            min = Math.min(min, icons[i].codepoint());
+            max = Math.max(max, icons[i].codepoint());
+        }
+        NAMES = new IconIndex(names, icons);
+        CSS_NAMES = new IconIndex(cssNames, icons);
+
+        MIN_CODEPOINT = min;
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Set<Icon>[] codepoints = new Set[max - min + 1];
+        for (Icon icon : icons) {
+            int i = icon.codepoint() - min;
+            if (codepoints[i] == null) {
+                codepoints[i] = EnumSet.noneOf(Icon.class);
+            }
+            codepoints[i].add(icon);
+        }
+        for (int i = 0; i < codepoints.length; i++) {
+            codepoints[i] = codepoints[i] == null ? Collections
+                    .<Icon> emptySet() : Collections
+                    .unmodifiableSet(codepoints[i]);
+        }
+        CODEPOINTS = codepoints;
+    }
+
+    static Icon byName(CharSequence name) {
+        Icon icon = NAMES.get(name, 0, name.length());
+        if (icon == null) {
+            // reserved words, e.g try -> try_FI
+            icon = CSS_NAMES.get(name, 0, name.length());
+            if (icon != null && !icon.name().endsWith(RESERVED_SUFFIX)) {
+                icon = null;
+            }
+        }
+        return icon;
+    }
+
+    static Icon byStylename(CharSequence stylename) {
+        int from = 0;
+        if (startsWith(stylename, STYLENAME_PREFIX)) {
+            from = STYLENAME_PREFIX.length();
+        } else if (startsWith(stylename, CSS_PREFIX)) {
+            from = CSS_PREFIX.length();
+        }
+        return CSS_NAMES.get(stylename, from, stylename.length());
+    }
+
+    static Set<Icon> byCodepoint(int codepoint) {
+        int i = codepoint - MIN_CODEPOINT;
+        if (i < 0 || i >= CODEPOINTS.length) {
+            return Collections.emptySet();
+        }
+        return CODEPOINTS[i];
+    }
+
+    private final String[] keys;
+    private final Icon[] icons;
+    private final int mask;
+
+    private IconIndex(String[] keys, Icon[] icons) {
+        int size = Integer.highestOneBit(keys.length * 2 - 1) << 1;
+        this.keys = new String[size];
+        this.icons = new Icon[size];
+        mask = size - 1;
+        for (int k = 0; k < keys.length; k++) {
+            int i = hash(keys[k], 0, keys[k].length()) & mask;
+            while (this.keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = keys[k];
+            this.icons[i] = icons[k];
+        }
+    }
+
+    private Icon get(CharSequence s, int from, int to) {
+        int i = hash(s, from, to) & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (regionEquals(key, s, from, to)) {
+                return icons[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(CharSequence s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean regionEquals(String key, CharSequence s, int from,
+            int to) {
+        if (key.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != s.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(CharSequence s, String prefix) {
+        return s.length() > prefix.length()
+                && regionEquals(prefix, s, 0, prefix.length());
+    }
+}
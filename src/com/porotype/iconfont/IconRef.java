@@ -0,0 +1,216 @@
+package com.porotype.iconfont;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Set;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * Compact reference to an {@link Icon} with {@link IconVariant}s, for state
+ * that is serialized, e.g replicated sessions: keep the reference instead of
+ * the HTML, and render it with {@link #toString()} when needed.
+ * <p>
+ * The serialized form is a few bytes, and does not depend on the order of the
+ * icons, so it can be read after upgrading Font Awesome:
+ * </p>
+ * <ul>
+ * <li>varint: codepoint &lt;&lt; 1, | 1 for an alias (an icon sharing the
+ * codepoint with an icon declared before it)</li>
+ * <li>varint: {@link IconVariant#mask(IconVariant...) variant bitmask}</li>
+ * <li>for aliases, the CSS name (modified UTF-8); if the name no longer
+ * exists, the first icon with the codepoint is used</li>
+ * </ul>
+ * <p>
+ * Variant bits are in declaration order, so new {@link IconVariant}s must
+ * only ever be added last.
+ * </p>
+ */
+public final class IconRef implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Icon icon;
+    private long mask;
+
+    /**
+     * For deserialization only; use {@link #of(Icon, long)}.
+     */
+    public IconRef() {
+    }
+
+    private IconRef(Icon icon, long mask) {
+        this.icon = icon;
+        this.mask = mask;
+    }
+
+    /**
+     * Gets a reference to the icon.
+     *
+     * @param icon
+     * @return the reference
+     */
+    public static IconRef of(Icon icon) {
+        return of(icon, 0);
+    }
+
+    /**
+     * Gets a reference to the icon with the given variants.
+     *
+     * @param icon
+     * @param variants
+     * @return the reference
+     */
+    public static IconRef of(Icon icon, IconVariant... variants) {
+        return of(icon, IconVariant.mask(variants));
+    }
+
+    /**
+     * Gets a reference to the icon with the {@link IconVariant}s in the given
+     * bitmask.
+     *
+     * @param icon
+     * @param mask
+     *            variant bitmask
+     * @return the reference
+     */
+    public static IconRef of(Icon icon, long mask) {
+        if (icon == null) {
+            throw new IllegalArgumentException("Icon must not be null");
+        }
+        IconVariant.checkMask(mask);
+        return new IconRef(icon, mask);
+    }
+
+    public Icon getIcon() {
+        return icon;
+    }
+
+    /**
+     * Gets the variant bitmask.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Gets the icon HTML with the variants, as {@link Icon#variant(long)}.
+     */
+    @Override
+    public String toString() {
+        return icon.variant(mask);
+    }
+
+    /**
+     * Gets the cached HTML without recording usage.
+     */
+    String html() {
+        return icon.fragment(mask);
+    }
+
+    @Override
+    public int hashCode() {
+        return icon.hashCode() * 31 + (int) (mask ^ mask >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IconRef)) {
+            return false;
+        }
+        IconRef other = (IconRef) obj;
+        return icon == other.icon && mask == other.mask;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        write(out, icon, mask);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        IconRef ref = read(in);
+        icon = ref.icon;
+        mask = ref.mask;
+    }
+
+    /**
+     * Writes the icon and mask in the serialized form of an {@link IconRef}.
+     *
+     * @param out
+     * @param icon
+     * @param mask
+     *            variant bitmask
+     * @throws IOException
+     */
+    static void write(DataOutput out, Icon icon, long mask)
+            throws IOException {
+        boolean alias = IconIndex.byCodepoint(icon.codepoint()).iterator()
+                .next() != icon;
+        writeVarint(out, (long) icon.codepoint() << 1 | (alias ? 1 : 0));
+        writeVarint(out, mask);
+        if (alias) {
+            out.writeUTF(icon.cssName());
+        }
+    }
+
+    /**
+     * Reads an icon and mask written by {@link #write(DataOutput, Icon, long)}.
+     *
+     * @param in
+     * @return the reference
+     * @throws IOException
+     */
+    static IconRef read(DataInput in) throws IOException {
+        long header = readVarint(in);
+        long mask = readVarint(in);
+        Icon icon = null;
+        if ((header & 1) != 0) {
+            icon = IconIndex.byStylename(in.readUTF());
+        }
+        int codepoint = (int) (header >>> 1);
+        if (icon == null || icon.codepoint() != codepoint) {
+            Set<Icon> icons = IconIndex.byCodepoint(codepoint);
+            if (icons.isEmpty()) {
+                throw new InvalidObjectException("Unknown icon codepoint: "
+                        + Integer.toHexString(codepoint));
+            }
+            icon = icons.iterator().next();
+        }
+        try {
+            IconVariant.checkMask(mask);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+        return new IconRef(icon, mask);
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint: 7 bits per byte, low bits first.
+     */
+    static void writeVarint(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.writeByte((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidObjectException("Malformed varint");
+    }
+}
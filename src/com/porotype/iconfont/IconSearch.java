@@ -0,0 +1,258 @@
+package com.porotype.iconfont;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+
+/**
+ * Search engine for {@link Icon}s, e.g for an icon picker.
+ * <p>
+ * Icons are matched on their name, ignoring case, the <code>_FI</code>
+ * reserved word suffix and the difference between <code>_</code>,
+ * <code>-</code> and space, so <code>thumbs-o</code> and <code>Thumbs O</code>
+ * both find {@link Icon#thumbs_o_up}. Results are ranked: prefix matches,
+ * then matches at a word start (<code>up</code> finds
+ * {@link Icon#thumbs_o_up}), then other substring matches and finally, for
+ * queries of 4 or more chars, prefixes within one typo (two from 8 chars), so
+ * <code>thubms</code> finds {@link Icon#thumbs_o_up}. Within a rank, icons are
+ * in declaration order.
+ * </p>
+ * <p>
+ * Substring matches are found with binary search in a suffix array over all
+ * names, and recent results are shared by all users.
+ * </p>
+ */
+public final class IconSearch {
+
+    private static final int CACHE_SIZE = 256;
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    private static final int PREFIX = 0;
+    private static final int WORD_PREFIX = 1;
+    private static final int SUBSTRING = 2;
+    private static final int FUZZY = 3;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final Icon[] ICONS = Icon.values();
+    private static final List<Icon> ALL = Collections.unmodifiableList(Arrays
+            .asList(ICONS));
+    private static final String[] KEYS = new String[ICONS.length];
+    /**
+     * Suffixes of all keys, sorted; encoded as (icon ordinal << 8) | offset.
+     */
+    private static final int[] SUFFIXES;
+
+    static {
+        List<Integer> suffixes = new ArrayList<Integer>();
+        for (int i = 0; i < ICONS.length; i++) {
+            KEYS[i] = ICONS[i].cssName().replace('-', '_');
+            for (int offset = 0; offset < KEYS[i].length(); offset++) {
+                suffixes.add(i << 8 | offset);
+            }
+        }
+        Collections.sort(suffixes, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return compareSuffix(a, KEYS[b >>> 8], b & 0xff);
+            }
+        });
+        SUFFIXES = new int[suffixes.size()];
+        for (int i = 0; i < SUFFIXES.length; i++) {
+            SUFFIXES[i] = suffixes.get(i);
+        }
+    }
+
+    private static final Map<String, List<Icon>> cache = Collections
+            .synchronizedMap(new LinkedHashMap<String, List<Icon>>(
+                    CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, List<Icon>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private IconSearch() {
+    }
+
+    /**
+     * Finds all icons matching the given query, ranked as described in the
+     * class documentation. An empty query matches all icons.
+     * 
+     * @param query
+     * @return unmodifiable list of matching icons
+     */
+    public static List<Icon> search(String query) {
+        return find(query, false);
+    }
+
+    /**
+     * Finds the icons whose name starts with the given query, in declaration
+     * order. An empty query matches all icons.
+     * 
+     * @param query
+     * @return unmodifiable list of matching icons
+     */
+    public static List<Icon> prefix(String query) {
+        return find(query, true);
+    }
+
+    private static List<Icon> find(String query, boolean prefixOnly) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return ALL;
+        }
+        String key = (prefixOnly ? '^' : '*') + q;
+        List<Icon> result = cache.get(key);
+        if (result == null) {
+            result = Collections.unmodifiableList(match(q, prefixOnly));
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    private static List<Icon> match(String q, boolean prefixOnly) {
+        int[] ranks = new int[ICONS.length];
+        Arrays.fill(ranks, NO_MATCH);
+        int found = 0;
+        for (int s = lowerBound(q); s < SUFFIXES.length; s++) {
+            int icon = SUFFIXES[s] >>> 8;
+            int offset = SUFFIXES[s] & 0xff;
+            if (!startsWith(KEYS[icon], offset, q)) {
+                break;
+            }
+            int rank = offset == 0 ? PREFIX
+                    : KEYS[icon].charAt(offset - 1) == '_' ? WORD_PREFIX
+                            : SUBSTRING;
+            if (prefixOnly && rank != PREFIX) {
+                continue;
+            }
+            if (ranks[icon] == NO_MATCH) {
+                found++;
+            }
+            ranks[icon] = Math.min(ranks[icon], rank);
+        }
+        if (!prefixOnly && q.length() >= FUZZY_MIN_LENGTH) {
+            int maxEdits = q.length() >= FUZZY_MIN_LENGTH * 2 ? 2 : 1;
+            int[][] rows = new int[3][q.length() + 1];
+            for (int i = 0; i < ICONS.length; i++) {
+                if (ranks[i] == NO_MATCH
+                        && prefixDistance(q, KEYS[i], maxEdits, rows) <= maxEdits) {
+                    ranks[i] = FUZZY;
+                    found++;
+                }
+            }
+        }
+
+        List<Icon> result = new ArrayList<Icon>(found);
+        for (int rank = PREFIX; rank <= FUZZY; rank++) {
+            for (int i = 0; i < ICONS.length; i++) {
+                if (ranks[i] == rank) {
+                    result.add(ICONS[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    static String normalize(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT)
+                .replace('-', '_').replace(' ', '_');
+        if (q.startsWith("fa_") && q.length() > 3) {
+            q = q.substring(3);
+        }
+        if (q.endsWith("_fi")) {
+            q = q.substring(0, q.length() - 3);
+        }
+        return q;
+    }
+
+    /**
+     * Index of the first suffix not less than the query.
+     */
+    private static int lowerBound(String q) {
+        int low = 0;
+        int high = SUFFIXES.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int s = SUFFIXES[mid];
+            if (compareSuffix(s, q, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the encoded suffix with the suffix of <code>other</code>
+     * starting at <code>otherOffset</code>.
+     */
+    private static int compareSuffix(int suffix, String other, int otherOffset) {
+        String key = KEYS[suffix >>> 8];
+        int i = suffix & 0xff;
+        int j = otherOffset;
+        while (i < key.length() && j < other.length()) {
+            int c = key.charAt(i++) - other.charAt(j++);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return (key.length() - i) - (other.length() - j);
+    }
+
+    private static boolean startsWith(String key, int offset, String q) {
+        return key.regionMatches(offset, q, 0, q.length());
+    }
+
+    /**
+     * Edit distance (with transpositions) between the query and the closest
+     * prefix of the key, or a value greater than <code>maxEdits</code> when it
+     * exceeds it.
+     */
+    private static int prefixDistance(String q, String key, int maxEdits,
+            int[][] rows) {
+        int[] prev2 = rows[0];
+        int[] prev = rows[1];
+        int[] row = rows[2];
+        for (int i = 0; i <= q.length(); i++) {
+            prev[i] = i;
+        }
+        int best = prev[q.length()];
+        int prevMin = 0;
+        for (int j = 1; j <= key.length(); j++) {
+            row[0] = j;
+            int rowMin = j;
+            char c = key.charAt(j - 1);
+            for (int i = 1; i <= q.length(); i++) {
+                int cost = q.charAt(i - 1) == c ? 0 : 1;
+                int d = Math.min(Math.min(row[i - 1] + 1, prev[i] + 1),
+                        prev[i - 1] + cost);
+                if (i > 1 && j > 1 && q.charAt(i - 1) == key.charAt(j - 2)
+                        && q.charAt(i - 2) == c) {
+                    d = Math.min(d, prev2[i - 2] + 1);
+                }
+                row[i] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            best = Math.min(best, row[q.length()]);
+            if (rowMin > maxEdits && prevMin > maxEdits) {
+                break;
+            }
+            prevMin = rowMin;
+            int[] tmp = prev2;
+            prev2 = prev;
+            prev = row;
+            row = tmp;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,215 @@
+package com.porotype.iconfont;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.PathIterator;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * SVG sprite with the glyph outlines of Font Awesome icons, as an alternative
+ * to downloading the whole font.
+ * <p>
+ * The sprite has one <code>&lt;symbol id="fa-glass"&gt;</code> per codepoint;
+ * aliases share the symbol of the first {@link Icon} with the same codepoint.
+ * {@link Icon#svg()} references the symbols from the
+ * {@link #setLocation(String) sprite location}: by default the current
+ * document, e.g with the sprite in a {@link com.vaadin.ui.Label}, or the
+ * <code>sprite.svg</code> of {@link FontAwesomeServlet}, which sets itself as
+ * the location on init. The sprite for only the icons used by an application
+ * can be generated with {@link com.porotype.iconfont.build.IconSubset}.
+ * </p>
+ */
+public final class IconSprite {
+
+    /**
+     * Stylename of the <code>&lt;svg&gt;</code> elements, sizing them like the
+     * font icons
+     */
+    public static final String STYLENAME = "fa-svg";
+
+    /**
+     * The {@link #STYLENAME} rule, added by {@link FontAwesome#load()}
+     */
+    static final String CSS = "." + STYLENAME
+            + "{display:inline-block;width:1em;height:1em;fill:currentColor;vertical-align:-.125em}";
+
+    /**
+     * Font size giving outlines in Font Awesome font units (1792 per em)
+     */
+    private static final float EM = 1792;
+
+    private static volatile String location = "";
+    /**
+     * {@link Icon#svg()} HTML for the current location, by ordinal
+     */
+    private static volatile String[] html = new String[Icon.values().length];
+
+    private IconSprite() {
+    }
+
+    /**
+     * Sets the URL of the sprite the icons refer to, e.g
+     * <code>/app/font-awesome/sprite.svg</code>; empty for a sprite in the
+     * document.
+     *
+     * @param url
+     */
+    public static void setLocation(String url) {
+        location = url == null ? "" : url;
+        html = new String[Icon.values().length];
+    }
+
+    public static String getLocation() {
+        return location;
+    }
+
+    /**
+     * Generates the sprite for the given icons from the bundled font.
+     *
+     * @param icons
+     * @return SVG document
+     */
+    public static String svg(Collection<Icon> icons) {
+        return svg(BundledFont.get(), icons);
+    }
+
+    /**
+     * Generates the sprite for the given icons from the given Font Awesome
+     * font, e.g a subset.
+     *
+     * @param font
+     * @param icons
+     * @return SVG document
+     */
+    public static String svg(Font font, Collection<Icon> icons) {
+        Set<Icon> symbols = EnumSet.noneOf(Icon.class);
+        for (Icon icon : icons) {
+            symbols.add(symbol(icon));
+        }
+        Font em = font.deriveFont(EM);
+        FontRenderContext frc = new FontRenderContext(null, true, true);
+        LineMetrics metrics = em.getLineMetrics("\uf000", frc);
+        int ascent = Math.round(metrics.getAscent());
+        int height = Math.round(EM);
+
+        StringBuilder svg = new StringBuilder(symbols.size() * 600);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"0\" height=\"0\" style=\"position:absolute\">");
+        for (Icon icon : symbols) {
+            GlyphVector glyph = em.createGlyphVector(frc,
+                    Character.toChars(icon.codepoint()));
+            int width = Math.round(glyph.getGlyphMetrics(0).getAdvance());
+            svg.append("<symbol id=\"fa-").append(icon.cssName())
+                    .append("\" viewBox=\"0 ").append(-ascent).append(' ')
+                    .append(width).append(' ').append(height)
+                    .append("\"><path d=\"");
+            appendPath(svg, glyph.getOutline().getPathIterator(null));
+            svg.append("\"/></symbol>");
+        }
+        return svg.append("</svg>").toString();
+    }
+
+    /**
+     * Gets the <code>&lt;svg&gt;&lt;use&gt;</code> HTML of the icon with the
+     * given variants.
+     */
+    static String html(Icon icon, long mask) {
+        if (mask == 0) {
+            String[] cached = html;
+            String svg = cached[icon.ordinal()];
+            if (svg == null) {
+                svg = render(icon, 0);
+                cached[icon.ordinal()] = svg;
+            }
+            return svg;
+        }
+        return render(icon, mask);
+    }
+
+    private static String render(Icon icon, long mask) {
+        StringBuilder svg = new StringBuilder("<svg class=\"")
+                .append(STYLENAME);
+        for (IconVariant v : IconVariant.values()) {
+            if ((mask & v.mask()) != 0) {
+                svg.append(' ').append(v.toString());
+            }
+        }
+        return svg.append("\"><use xlink:href=\"").append(location)
+                .append("#fa-").append(symbol(icon).cssName())
+                .append("\"/></svg>").toString();
+    }
+
+    /**
+     * The icon whose symbol is used for the given icon: the first one with
+     * the same codepoint
+     */
+    private static Icon symbol(Icon icon) {
+        return IconIndex.byCodepoint(icon.codepoint()).iterator().next();
+    }
+
+    /**
+     * Appends the outline as SVG path data, with relative coordinates rounded
+     * to font units.
+     */
+    private static void appendPath(StringBuilder d, PathIterator path) {
+        float[] coords = new float[6];
+        // current point and start of the subpath
+        int[] point = new int[2];
+        int startX = 0;
+        int startY = 0;
+        for (; !path.isDone(); path.next()) {
+            switch (path.currentSegment(coords)) {
+            case PathIterator.SEG_MOVETO:
+                appendPoints(d.append('m'), coords, 1, point);
+                startX = point[0];
+                startY = point[1];
+                break;
+            case PathIterator.SEG_LINETO:
+                appendPoints(d.append('l'), coords, 1, point);
+                break;
+            case PathIterator.SEG_QUADTO:
+                appendPoints(d.append('q'), coords, 2, point);
+                break;
+            case PathIterator.SEG_CUBICTO:
+                appendPoints(d.append('c'), coords, 3, point);
+                break;
+            case PathIterator.SEG_CLOSE:
+                d.append('z');
+                point[0] = startX;
+                point[1] = startY;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Appends the points relative to the current point, and moves the
+     * current point to the last one.
+     */
+    private static void appendPoints(StringBuilder d, float[] coords,
+            int points, int[] point) {
+        int x = point[0];
+        int y = point[1];
+        for (int i = 0; i < points * 2; i += 2) {
+            x = Math.round(coords[i]);
+            y = Math.round(coords[i + 1]);
+            appendNumber(d, x - point[0], i > 0);
+            appendNumber(d, y - point[1], true);
+        }
+        point[0] = x;
+        point[1] = y;
+    }
+
+    private static void appendNumber(StringBuilder d, int n, boolean separate) {
+        if (separate && n >= 0) {
+            d.append(' ');
+        }
+        d.append(n);
+    }
+}
@@ -0,0 +1,309 @@
+package com.porotype.iconfont;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * Two {@link Icon}s stacked on top of each other, e.g a flag on a circle:
+ * <code>IconStack.of(Icon.circle, Icon.flag, IconVariant.INVERSE.mask())</code>
+ * <p>
+ * Stacks are immutable values; the markup is validated and rendered when the
+ * stack is created, and stacks are cached by their icons and variants, so
+ * {@link #of(Icon, long, Icon, long)} with the same arguments usually returns
+ * the same instance, and always an equal one. Like {@link Icon}, {@link #toString()} gives the HTML, with
+ * {@link #variant(long)} and {@link #appendTo(Appendable, long)} for
+ * {@link IconVariant}s (e.g sizes) of the whole stack.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public final class IconStack implements Serializable {
+
+    /**
+     * Upper bound for the number of cached stacks and fragments; further
+     * ones are created on each call.
+     */
+    private static final int CACHE_SIZE = 8192;
+
+    private static final long LAYER_SIZES = IconVariant.STACK_1X.mask()
+            | IconVariant.STACK_2X.mask();
+    /**
+     * Not allowed on a layer: the stack itself and sizes (the layer size is
+     * given by {@link IconVariant#STACK_1X} or {@link IconVariant#STACK_2X})
+     */
+    private static final long LAYER_INVALID = IconVariant.mask(
+            IconVariant.STACK, IconVariant.SIZE_LARGE, IconVariant.SIZE_2X,
+            IconVariant.SIZE_3X, IconVariant.SIZE_4X, IconVariant.SIZE_5X,
+            IconVariant.LIST);
+    private static final long STACK_INVALID = IconVariant.STACK.mask()
+            | LAYER_SIZES;
+
+    /**
+     * Cached stacks, by {@link #key(Icon, long, Icon, long)}
+     */
+    private static final FragmentCache<IconStack> stacks = new FragmentCache<IconStack>(
+            CACHE_SIZE);
+
+    private final Icon back;
+    private final long backMask;
+    private final Icon front;
+    private final long frontMask;
+    private final transient String html;
+    /**
+     * Rendered stack variants, by mask; created on first use, as most stacks
+     * are only used as is
+     */
+    private transient volatile FragmentCache<String> fragments;
+
+    private IconStack(Icon back, long backMask, Icon front, long frontMask) {
+        this.back = back;
+        this.backMask = backMask;
+        this.front = front;
+        this.frontMask = frontMask;
+        html = render(0);
+    }
+
+    /**
+     * Gets the stack of the two icons, the back one in double size.
+     *
+     * @param back
+     * @param front
+     * @return the stack
+     */
+    public static IconStack of(Icon back, Icon front) {
+        return of(back, 0, front, 0);
+    }
+
+    /**
+     * Gets the stack of the two icons, the back one in double size, with the
+     * given variants for the front icon, e.g {@link IconVariant#INVERSE}.
+     *
+     * @param back
+     * @param front
+     * @param frontMask
+     *            variant bitmask for the front icon
+     * @return the stack
+     */
+    public static IconStack of(Icon back, Icon front, long frontMask) {
+        return of(back, 0, front, frontMask);
+    }
+
+    /**
+     * Gets the stack of the two icons with the given variants.
+     * <p>
+     * Unless given, the back icon gets {@link IconVariant#STACK_2X} and the
+     * front icon {@link IconVariant#STACK_1X}. Size and list variants, and
+     * {@link IconVariant#STACK}, are not allowed on the layers; see
+     * {@link #variant(long)} instead.
+     * </p>
+     *
+     * @param back
+     * @param backMask
+     *            variant bitmask for the back icon
+     * @param front
+     * @param frontMask
+     *            variant bitmask for the front icon
+     * @return the stack
+     * @throws IllegalArgumentException
+     *             if a mask is invalid for a layer
+     */
+    public static IconStack of(Icon back, long backMask, Icon front,
+            long frontMask) {
+        if (back == null || front == null) {
+            throw new IllegalArgumentException("Icons must not be null");
+        }
+        backMask = layer(backMask, IconVariant.STACK_2X);
+        frontMask = layer(frontMask, IconVariant.STACK_1X);
+        long key = key(back, backMask, front, frontMask);
+        IconStack stack = stacks.get(key);
+        if (stack == null) {
+            stack = new IconStack(back, backMask, front, frontMask);
+            if (!stacks.isFull()) {
+                stack = stacks.putIfAbsent(key, stack);
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * Gets the cache key of a stack; positive, as the layer masks always
+     * contain a stack size.
+     */
+    private static long key(Icon back, long backMask, Icon front,
+            long frontMask) {
+        // ordinals < 2^10, masks < 2^20
+        return (long) back.ordinal() << 50 | backMask << 30
+                | (long) front.ordinal() << 20 | frontMask;
+    }
+
+    private static long layer(long mask, IconVariant defaultSize) {
+        IconVariant.checkMask(mask);
+        if ((mask & LAYER_INVALID) != 0) {
+            throw new IllegalArgumentException("Invalid layer variants: "
+                    + IconVariant.of(mask & LAYER_INVALID));
+        }
+        if ((mask & LAYER_SIZES) == LAYER_SIZES) {
+            throw new IllegalArgumentException(
+                    "Both STACK_1X and STACK_2X given");
+        }
+        return (mask & LAYER_SIZES) == 0 ? mask | defaultSize.mask() : mask;
+    }
+
+    public Icon getBack() {
+        return back;
+    }
+
+    public long getBackMask() {
+        return backMask;
+    }
+
+    public Icon getFront() {
+        return front;
+    }
+
+    public long getFrontMask() {
+        return frontMask;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof IconStack)) {
+            return false;
+        }
+        IconStack other = (IconStack) obj;
+        return back == other.back && backMask == other.backMask
+                && front == other.front && frontMask == other.frontMask;
+    }
+
+    @Override
+    public int hashCode() {
+        long key = key(back, backMask, front, frontMask);
+        return (int) (key ^ key >>> 32);
+    }
+
+    @Override
+    public String toString() {
+        if (IconUsage.enabled) {
+            record();
+        }
+        return html;
+    }
+
+    /**
+     * Gets the stack HTML with the {@link IconVariant}s in the given bitmask
+     * added to the whole stack, e.g {@link IconVariant#SIZE_LARGE}. The
+     * returned fragments are cached, so repeated calls with the same mask
+     * return the same instance.
+     *
+     * @param mask
+     *            variant bitmask, without the stack variants
+     * @return
+     */
+    public String variant(long mask) {
+        if (IconUsage.enabled) {
+            record();
+        }
+        return fragment(mask);
+    }
+
+    /**
+     * Gets the stack HTML with the given {@link IconVariant}s added to the
+     * whole stack.
+     *
+     * @see #variant(long)
+     * @param variants
+     * @return
+     */
+    public String variant(IconVariant... variants) {
+        return variant(IconVariant.mask(variants));
+    }
+
+    /**
+     * Appends the stack HTML, with the {@link IconVariant}s in the given
+     * bitmask, to the given builder.
+     *
+     * @see #variant(long)
+     * @param sb
+     * @param mask
+     *            variant bitmask
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder sb, long mask) {
+        return sb.append(variant(mask));
+    }
+
+    /**
+     * Appends the stack HTML, with the {@link IconVariant}s in the given
+     * bitmask, to the given output, e.g a <code>Writer</code>.
+     *
+     * @see #variant(long)
+     * @param out
+     * @param mask
+     *            variant bitmask
+     * @return the output
+     * @throws IOException
+     */
+    public Appendable appendTo(Appendable out, long mask) throws IOException {
+        return out.append(variant(mask));
+    }
+
+    private String fragment(long mask) {
+        if (mask == 0) {
+            return html;
+        }
+        IconVariant.checkMask(mask);
+        if ((mask & STACK_INVALID) != 0) {
+            throw new IllegalArgumentException("Invalid stack variants: "
+                    + IconVariant.of(mask & STACK_INVALID));
+        }
+        FragmentCache<String> fragments = this.fragments;
+        if (fragments == null) {
+            // a racing thread may replace it, losing only cached fragments
+            this.fragments = fragments = new FragmentCache<String>(8,
+                    CACHE_SIZE);
+        }
+        String fragment = fragments.get(mask);
+        if (fragment == null) {
+            fragment = render(mask);
+            if (!fragments.isFull()) {
+                fragment = fragments.putIfAbsent(mask, fragment);
+            }
+        }
+        return fragment;
+    }
+
+    private String render(long mask) {
+        StringBuilder sb = new StringBuilder(128);
+        appendClasses(sb.append("<span class=\""), "fa-stack", mask);
+        appendClasses(sb.append("\"><i class=\"fa fa-"), back.cssName(),
+                backMask);
+        appendClasses(sb.append("\"></i><i class=\"fa fa-"), front.cssName(),
+                frontMask);
+        return sb.append("\"></i></span>").toString();
+    }
+
+    private static void appendClasses(StringBuilder sb, String stylename,
+            long mask) {
+        sb.append(stylename);
+        for (IconVariant v : IconVariant.values()) {
+            if ((mask & v.mask()) != 0) {
+                sb.append(' ').append(v.toString());
+            }
+        }
+    }
+
+    private void record() {
+        IconUsage.record(back, backMask | IconVariant.STACK.mask());
+        IconUsage.record(front, frontMask | IconVariant.STACK.mask());
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return of(back, backMask, front, frontMask);
+    }
+}
@@ -0,0 +1,416 @@
+package com.porotype.iconfont;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+/**
+ * Optional counters of the {@link Icon}s and {@link IconVariant} combinations
+ * rendered via {@link Icon#toString()}, {@link Icon#variant(long)} (and the
+ * other variant methods), {@link Icon#appendTo(Appendable, long)} and
+ * {@link Icon#stylename()}.
+ * <p>
+ * Counting is off by default; when off, rendering only checks a flag. When
+ * on, the JVM-wide counters, of icons and of variant combinations, are
+ * striped per thread, so concurrent requests do not contend, and counting
+ * does not allocate once a combination has been seen. With {@link #setSessionTracking(boolean)}, usage is also
+ * counted per {@link VaadinSession} and per {@link UI} when rendering while
+ * holding the session lock.
+ * </p>
+ * <p>
+ * A {@link Snapshot} can be written in the allow-list format of
+ * {@link com.porotype.iconfont.build.IconSubset}, to subset the font to the
+ * icons actually used.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class IconUsage implements Serializable {
+
+    static volatile boolean enabled;
+    private static volatile boolean sessionTracking;
+
+    private static final Icon[] ICONS = Icon.values();
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime
+            .getRuntime().availableProcessors() * 2 - 1) * 2);
+    private static final IconUsage global = new IconUsage(STRIPES, false);
+    private static final String SESSION_ATTRIBUTE = IconUsage.class.getName();
+
+    private final int stripes;
+    /**
+     * Counts per stripe and icon: [stripe * icons + ordinal]
+     */
+    private final AtomicLongArray counts;
+    /**
+     * Counts of icons with variants, by ordinal
+     */
+    private final AtomicReferenceArray<MaskCounts> variants = new AtomicReferenceArray<MaskCounts>(
+            ICONS.length);
+    /**
+     * Per UI usage, by UI id; only for session usage
+     */
+    private final ConcurrentMap<Integer, IconUsage> uis;
+
+    private IconUsage(int stripes, boolean perUI) {
+        this.stripes = stripes;
+        counts = new AtomicLongArray(stripes * ICONS.length);
+        uis = perUI ? new ConcurrentHashMap<Integer, IconUsage>() : null;
+    }
+
+    /**
+     * Turns usage counting on or off; off by default.
+     * 
+     * @param enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        IconUsage.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns counting per session and UI on or off, in addition to the
+     * JVM-wide counting; off by default. Only has effect when counting is
+     * {@link #setEnabled(boolean) enabled}.
+     * 
+     * @param sessionTracking
+     */
+    public static void setSessionTracking(boolean sessionTracking) {
+        IconUsage.sessionTracking = sessionTracking;
+    }
+
+    public static boolean isSessionTracking() {
+        return sessionTracking;
+    }
+
+    /**
+     * Gets the JVM-wide usage.
+     * 
+     * @return the JVM-wide usage
+     */
+    public static IconUsage global() {
+        return global;
+    }
+
+    /**
+     * Gets the usage for the given session; the session must be locked.
+     * 
+     * @param session
+     * @return the session usage, or <code>null</code> if nothing was recorded
+     */
+    public static IconUsage forSession(VaadinSession session) {
+        return (IconUsage) session.getAttribute(SESSION_ATTRIBUTE);
+    }
+
+    /**
+     * Gets the usage for the given UI; the session must be locked.
+     * 
+     * @param ui
+     * @return the UI usage, or <code>null</code> if nothing was recorded
+     */
+    public static IconUsage forUI(UI ui) {
+        IconUsage session = ui.getSession() == null ? null : forSession(ui
+                .getSession());
+        return session == null ? null : session.uis.get(ui.getUIId());
+    }
+
+    static void record(Icon icon, long mask) {
+        record(icon, mask, 1);
+    }
+
+    /**
+     * Records the given number of uses at once, e.g for a batch.
+     */
+    static void record(Icon icon, long mask, long uses) {
+        global.increment(icon, mask, uses);
+        if (sessionTracking) {
+            UI ui = UI.getCurrent();
+            VaadinSession session = ui != null ? ui.getSession()
+                    : VaadinSession.getCurrent();
+            if (session != null && session.hasLock()) {
+                IconUsage usage = forSession(session);
+                if (usage == null) {
+                    usage = new IconUsage(1, true);
+                    session.setAttribute(SESSION_ATTRIBUTE, usage);
+                }
+                usage.increment(icon, mask, uses);
+                if (ui != null) {
+                    usage.forUI(session, ui.getUIId()).increment(icon, mask,
+                            uses);
+                }
+            }
+        }
+    }
+
+    private IconUsage forUI(VaadinSession session, int uiId) {
+        IconUsage usage = uis.get(uiId);
+        if (usage == null) {
+            usage = new IconUsage(1, false);
+            IconUsage existing = uis.putIfAbsent(uiId, usage);
+            if (existing != null) {
+                usage = existing;
+            } else if (uis.size() > 1) {
+                // forget closed UIs
+                for (Integer id : uis.keySet()) {
+                    if (session.getUIById(id) == null) {
+                        uis.remove(id);
+                    }
+                }
+            }
+        }
+        return usage;
+    }
+
+    private void increment(Icon icon, long mask, long uses) {
+        int stripe = stripes == 1 ? 0 : (int) Thread.currentThread().getId()
+                & (stripes - 1);
+        counts.addAndGet(stripe * ICONS.length + icon.ordinal(), uses);
+        if (mask != 0) {
+            MaskCounts chunk = variants.get(icon.ordinal());
+            while (chunk == null) {
+                // reset() may null the slot again at any time
+                MaskCounts created = new MaskCounts(stripes);
+                if (variants.compareAndSet(icon.ordinal(), null, created)) {
+                    chunk = created;
+                } else {
+                    chunk = variants.get(icon.ordinal());
+                }
+            }
+            while (true) {
+                int slot = chunk.indexOf(mask);
+                if (slot < 0) {
+                    slot = chunk.add(mask);
+                }
+                if (slot >= 0) {
+                    chunk.counts.addAndGet(stripe * MaskCounts.SLOTS + slot,
+                            uses);
+                    return;
+                }
+                chunk = chunk.next(stripes);
+            }
+        }
+    }
+
+    /**
+     * Gets a copy of the current counts.
+     * 
+     * @return the counts
+     */
+    public Snapshot snapshot() {
+        long[] totals = new long[ICONS.length];
+        for (int i = 0; i < counts.length(); i++) {
+            totals[i % ICONS.length] += counts.get(i);
+        }
+        SortedMap<Long, Long> variantTotals = new TreeMap<Long, Long>();
+        for (int i = 0; i < ICONS.length; i++) {
+            MaskCounts chunk = variants.get(i);
+            while (chunk != null) {
+                int size = chunk.size;
+                for (int slot = 0; slot < size; slot++) {
+                    long total = 0;
+                    for (int stripe = 0; stripe < stripes; stripe++) {
+                        total += chunk.counts.get(stripe * MaskCounts.SLOTS
+                                + slot);
+                    }
+                    variantTotals.put(chunk.masks[slot] * ICONS.length + i,
+                            total);
+                }
+                chunk = chunk.next;
+            }
+        }
+        return new Snapshot(totals, variantTotals);
+    }
+
+    /**
+     * Resets all counts to zero.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        for (int i = 0; i < ICONS.length; i++) {
+            variants.set(i, null);
+        }
+        if (uis != null) {
+            uis.clear();
+        }
+    }
+
+    /**
+     * Counts of one icon with variants: up to {@link #SLOTS} masks, each
+     * counted per stripe, then a next chunk for more. Masks are only ever
+     * added, so counting a known mask takes neither a lock nor an allocation.
+     */
+    private static final class MaskCounts implements Serializable {
+
+        static final int SLOTS = 4;
+
+        final long[] masks = new long[SLOTS];
+        /**
+         * Number of masks; written after the mask, so reads up to it see them
+         */
+        volatile int size;
+        /**
+         * Counts per stripe and slot: [stripe * SLOTS + slot]
+         */
+        final AtomicLongArray counts;
+        volatile MaskCounts next;
+
+        MaskCounts(int stripes) {
+            counts = new AtomicLongArray(stripes * SLOTS);
+        }
+
+        int indexOf(long mask) {
+            int size = this.size;
+            for (int i = 0; i < size; i++) {
+                if (masks[i] == mask) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds the mask, unless already added.
+         * 
+         * @return the slot, or -1 if this chunk is full
+         */
+        synchronized int add(long mask) {
+            int slot = indexOf(mask);
+            if (slot < 0 && size < SLOTS) {
+                slot = size;
+                masks[slot] = mask;
+                size = slot + 1;
+            }
+            return slot;
+        }
+
+        synchronized MaskCounts next(int stripes) {
+            if (next == null) {
+                next = new MaskCounts(stripes);
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Immutable copy of {@link IconUsage} counts.
+     */
+    public static class Snapshot implements Serializable {
+
+        private final long[] counts;
+        private final SortedMap<Long, Long> variants;
+
+        Snapshot(long[] counts, SortedMap<Long, Long> variants) {
+            this.counts = counts;
+            this.variants = variants;
+        }
+
+        /**
+         * Gets the number of times the icon was rendered, with or without
+         * variants.
+         * 
+         * @param icon
+         * @return the count
+         */
+        public long getCount(Icon icon) {
+            return counts[icon.ordinal()];
+        }
+
+        /**
+         * Gets the number of times the icon was rendered with exactly the
+         * given variants.
+         * 
+         * @param icon
+         * @param mask
+         *            variant bitmask, 0 for none
+         * @return the count
+         */
+        public long getCount(Icon icon, long mask) {
+            if (mask == 0) {
+                long count = getCount(icon);
+                for (long variantCount : getVariants(icon).values()) {
+                    count -= variantCount;
+                }
+                return count;
+            }
+            Long count = variants.get(mask * ICONS.length + icon.ordinal());
+            return count == null ? 0 : count;
+        }
+
+        /**
+         * Gets the variant combinations the icon was rendered with.
+         * 
+         * @param icon
+         * @return counts by variant bitmask
+         */
+        public Map<Long, Long> getVariants(Icon icon) {
+            Map<Long, Long> result = new TreeMap<Long, Long>();
+            for (Map.Entry<Long, Long> e : variants.entrySet()) {
+                if (e.getKey() % ICONS.length == icon.ordinal()) {
+                    result.put(e.getKey() / ICONS.length, e.getValue());
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Gets the icons that were rendered.
+         * 
+         * @return the used icons
+         */
+        public Set<Icon> getIcons() {
+            Set<Icon> icons = EnumSet.noneOf(Icon.class);
+            for (Icon icon : ICONS) {
+                if (counts[icon.ordinal()] > 0) {
+                    icons.add(icon);
+                }
+            }
+            return Collections.unmodifiableSet(icons);
+        }
+
+        /**
+         * Writes the counts, one used icon (and variant combination) per
+         * line, with the count and variants as comment:
+         * 
+         * <pre>
+         * thumbs_o_up  # 1234
+         * thumbs_o_up  # 12 fa-spin fa-2x
+         * </pre>
+         * 
+         * This is also an allow-list for
+         * {@link com.porotype.iconfont.build.IconSubset}.
+         * 
+         * @param out
+         * @throws IOException
+         */
+        public void writeTo(Writer out) throws IOException {
+            for (Icon icon : getIcons()) {
+                out.write(icon.name() + "\t# " + getCount(icon) + "\n");
+                for (Map.Entry<Long, Long> e : getVariants(icon).entrySet()) {
+                    out.write(icon.name() + "\t# " + e.getValue());
+                    for (IconVariant v : IconVariant.of(e.getKey())) {
+                        out.write(" " + v);
+                    }
+                    out.write("\n");
+                }
+            }
+        }
+    }
+}
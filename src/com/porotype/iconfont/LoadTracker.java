@@ -0,0 +1,111 @@
+package com.porotype.iconfont;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.vaadin.server.ExternalResource;
+import com.vaadin.server.Resource;
+import com.vaadin.server.ThemeResource;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+/**
+ * Keeps track of the stylesheets {@link FontAwesome#load(Resource)} has added,
+ * per session and UI, so each is added once per page. Stored as a session
+ * attribute; must be used with the session locked.
+ */
+@SuppressWarnings("serial")
+final class LoadTracker implements Serializable {
+
+    private static final String SESSION_ATTRIBUTE = LoadTracker.class
+            .getName();
+
+    /**
+     * Stylesheets already in the bootstrap page, by page path. An embedded UI
+     * is on its host page, which is never one of these, so it still gets the
+     * stylesheet from {@link FontAwesome#load(Resource)}.
+     */
+    private final Map<String, Set<Object>> bootstrapped = new HashMap<String, Set<Object>>();
+    /**
+     * Stylesheets added, by UI id
+     */
+    private final Map<Integer, Set<Object>> loaded = new HashMap<Integer, Set<Object>>();
+
+    private static LoadTracker get(VaadinSession session) {
+        LoadTracker tracker = (LoadTracker) session
+                .getAttribute(SESSION_ATTRIBUTE);
+        if (tracker == null) {
+            tracker = new LoadTracker();
+            session.setAttribute(SESSION_ATTRIBUTE, tracker);
+        }
+        return tracker;
+    }
+
+    /**
+     * Marks the stylesheet as loaded for the UI.
+     * 
+     * @return <code>true</code> if the stylesheet still needs to be added,
+     *         <code>false</code> if it is already loaded
+     */
+    static boolean markLoaded(UI ui, Resource css) {
+        LoadTracker tracker = get(ui.getSession());
+        Object key = key(css);
+        Set<Object> page = tracker.bootstrapped.get(path(ui.getPage()
+                .getLocation()));
+        if (page != null && page.contains(key)) {
+            return false;
+        }
+        Set<Object> styles = tracker.loaded.get(ui.getUIId());
+        if (styles == null) {
+            tracker.forgetClosedUIs(ui.getSession());
+            styles = new HashSet<Object>();
+            tracker.loaded.put(ui.getUIId(), styles);
+        }
+        return styles.add(key);
+    }
+
+    /**
+     * Marks the stylesheet as included in the bootstrap page served at the
+     * given path, e.g <code>/myapp/</code>, for the UIs of the session shown
+     * there.
+     */
+    static void markBootstrapped(VaadinSession session, String path,
+            Resource css) {
+        Map<String, Set<Object>> bootstrapped = get(session).bootstrapped;
+        Set<Object> page = bootstrapped.get(path);
+        if (page == null) {
+            page = new HashSet<Object>();
+            bootstrapped.put(path, page);
+        }
+        page.add(key(css));
+    }
+
+    private void forgetClosedUIs(VaadinSession session) {
+        for (Iterator<Integer> i = loaded.keySet().iterator(); i.hasNext();) {
+            if (session.getUIById(i.next()) == null) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * The raw path of the page location, as in the bootstrap request URI.
+     */
+    private static String path(URI location) {
+        return location == null ? null : location.getRawPath();
+    }
+
+    private static Object key(Resource css) {
+        if (css instanceof ExternalResource) {
+            return ((ExternalResource) css).getURL();
+        } else if (css instanceof ThemeResource) {
+            return "theme://" + ((ThemeResource) css).getResourceId();
+        }
+        return css;
+    }
+}
@@ -0,0 +1,455 @@
+package com.porotype.iconfont.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+/**
+ * Subsets a TrueType font to a given set of codepoints, and converts TrueType
+ * fonts to WOFF.
+ * <p>
+ * Glyphs keep their ids and codepoints; the outlines of glyphs that are not
+ * needed are dropped, as are trailing unused glyphs, and the
+ * <code>cmap</code> only maps the kept codepoints. Tables that are not needed
+ * for rendering (e.g glyph names in <code>post</code>) are dropped.
+ * </p>
+ */
+public class FontSubsetter {
+
+    private static final int TAG_CMAP = tag("cmap");
+    private static final int TAG_GLYF = tag("glyf");
+    private static final int TAG_HEAD = tag("head");
+    private static final int TAG_HHEA = tag("hhea");
+    private static final int TAG_HMTX = tag("hmtx");
+    private static final int TAG_LOCA = tag("loca");
+    private static final int TAG_MAXP = tag("maxp");
+    private static final int TAG_POST = tag("post");
+
+    /**
+     * Tables that are copied to the subset, other tables are dropped.
+     */
+    private static final Set<Integer> KEPT_TABLES = new HashSet<Integer>(
+            Arrays.asList(tag("OS/2"), TAG_CMAP, tag("cvt "), tag("fpgm"),
+                    tag("gasp"), TAG_GLYF, TAG_HEAD, TAG_HHEA, TAG_HMTX,
+                    TAG_LOCA, TAG_MAXP, tag("name"), TAG_POST, tag("prep")));
+
+    private static final int WOFF_SIGNATURE = tag("wOFF");
+    private static final int CHECKSUM_MAGIC = 0xB1B0AFBA;
+
+    private FontSubsetter() {
+    }
+
+    /**
+     * Creates a TrueType font with only the glyphs for the given codepoints.
+     * 
+     * @param ttf
+     *            the TrueType font
+     * @param codepoints
+     * @return the subset TrueType font
+     * @throws IOException
+     *             if the font can not be parsed
+     */
+    public static byte[] subset(byte[] ttf, Set<Integer> codepoints)
+            throws IOException {
+        SortedMap<Integer, ByteBuffer> tables = readTables(ttf);
+        for (int tag : new int[] { TAG_CMAP, TAG_GLYF, TAG_HEAD, TAG_HHEA,
+                TAG_HMTX, TAG_LOCA, TAG_MAXP }) {
+            if (!tables.containsKey(tag)) {
+                throw new IOException("Not a TrueType font, missing table "
+                        + tagName(tag));
+            }
+        }
+        ByteBuffer head = tables.get(TAG_HEAD);
+        ByteBuffer hhea = tables.get(TAG_HHEA);
+        ByteBuffer maxp = tables.get(TAG_MAXP);
+        int numGlyphs = maxp.getShort(4) & 0xffff;
+        boolean longLoca = head.getShort(50) != 0;
+        int[] loca = new int[numGlyphs + 1];
+        ByteBuffer locaTable = tables.get(TAG_LOCA);
+        for (int i = 0; i <= numGlyphs; i++) {
+            loca[i] = longLoca ? locaTable.getInt(i * 4) : (locaTable
+                    .getShort(i * 2) & 0xffff) * 2;
+        }
+        ByteBuffer glyf = tables.get(TAG_GLYF);
+
+        // glyphs to keep: .notdef, the mapped glyphs and their components
+        SortedMap<Integer, Integer> cmap = new TreeMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> e : readCmap(tables.get(TAG_CMAP))
+                .entrySet()) {
+            if (codepoints.contains(e.getKey())) {
+                cmap.put(e.getKey(), e.getValue());
+            }
+        }
+        boolean[] keep = new boolean[numGlyphs];
+        keep[0] = true;
+        for (int gid : cmap.values()) {
+            keepGlyph(gid, keep, loca, glyf);
+        }
+        int newNumGlyphs = numGlyphs;
+        while (newNumGlyphs > 1 && !keep[newNumGlyphs - 1]) {
+            newNumGlyphs--;
+        }
+
+        // glyf & loca (long format)
+        ByteArrayOutputStream newGlyf = new ByteArrayOutputStream();
+        ByteBuffer newLoca = ByteBuffer.allocate((newNumGlyphs + 1) * 4);
+        for (int gid = 0; gid < newNumGlyphs; gid++) {
+            newLoca.putInt(newGlyf.size());
+            if (keep[gid]) {
+                newGlyf.write(glyf.array(), glyf.arrayOffset() + loca[gid],
+                        loca[gid + 1] - loca[gid]);
+                while (newGlyf.size() % 4 != 0) {
+                    newGlyf.write(0);
+                }
+            }
+        }
+        newLoca.putInt(newGlyf.size());
+        tables.put(TAG_GLYF, ByteBuffer.wrap(newGlyf.toByteArray()));
+        tables.put(TAG_LOCA, newLoca);
+
+        // hmtx: full metrics for the first glyphs, then left side bearings
+        int numHMetrics = hhea.getShort(34) & 0xffff;
+        int newNumHMetrics = Math.min(numHMetrics, newNumGlyphs);
+        ByteBuffer hmtx = tables.get(TAG_HMTX);
+        ByteBuffer newHmtx = ByteBuffer.allocate(newNumHMetrics * 4
+                + (newNumGlyphs - newNumHMetrics) * 2);
+        for (int gid = 0; gid < newNumGlyphs; gid++) {
+            if (gid < newNumHMetrics) {
+                newHmtx.putInt(hmtx.getInt(gid * 4));
+            } else {
+                newHmtx.putShort(hmtx.getShort(numHMetrics * 4
+                        + (gid - numHMetrics) * 2));
+            }
+        }
+        tables.put(TAG_HMTX, newHmtx);
+
+        head = copy(head);
+        head.putShort(50, (short) 1);
+        tables.put(TAG_HEAD, head);
+        hhea = copy(hhea);
+        hhea.putShort(34, (short) newNumHMetrics);
+        tables.put(TAG_HHEA, hhea);
+        maxp = copy(maxp);
+        maxp.putShort(4, (short) newNumGlyphs);
+        tables.put(TAG_MAXP, maxp);
+        tables.put(TAG_CMAP, writeCmap(cmap));
+        if (tables.containsKey(TAG_POST)
+                && tables.get(TAG_POST).capacity() >= 32) {
+            // version 3: no glyph names
+            ByteBuffer post = ByteBuffer.allocate(32);
+            post.put((ByteBuffer) tables.get(TAG_POST).duplicate().limit(32));
+            post.putInt(0, 0x00030000);
+            tables.put(TAG_POST, post);
+        }
+        tables.keySet().retainAll(KEPT_TABLES);
+        return writeFont(tables);
+    }
+
+    /**
+     * Converts a TrueType font to WOFF, compressing each table.
+     * 
+     * @param ttf
+     *            the TrueType font
+     * @return the WOFF font
+     * @throws IOException
+     *             if the font can not be parsed
+     */
+    public static byte[] toWoff(byte[] ttf) throws IOException {
+        SortedMap<Integer, ByteBuffer> tables = readTables(ttf);
+        int numTables = tables.size();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteBuffer directory = ByteBuffer.allocate(numTables * 20);
+        int offset = 44 + numTables * 20;
+        int totalSfntSize = 12 + 16 * numTables;
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (Map.Entry<Integer, ByteBuffer> e : tables.entrySet()) {
+                byte[] table = bytes(e.getValue());
+                deflater.reset();
+                deflater.setInput(table);
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+                byte[] stored = compressed.size() < table.length ? compressed
+                        .toByteArray() : table;
+                directory.putInt(e.getKey());
+                directory.putInt(offset + data.size());
+                directory.putInt(stored.length);
+                directory.putInt(table.length);
+                directory.putInt(checksum(table));
+                data.write(stored);
+                while (data.size() % 4 != 0) {
+                    data.write(0);
+                }
+                totalSfntSize += (table.length + 3) & ~3;
+            }
+        } finally {
+            deflater.end();
+        }
+        ByteBuffer woff = ByteBuffer.allocate(offset + data.size());
+        woff.putInt(WOFF_SIGNATURE);
+        woff.putInt(ByteBuffer.wrap(ttf).getInt(0)); // flavor
+        woff.putInt(woff.capacity());
+        woff.putShort((short) numTables);
+        woff.putShort((short) 0);
+        woff.putInt(totalSfntSize);
+        woff.putShort((short) 1); // font version
+        woff.putShort((short) 0);
+        woff.putInt(0); // no metadata
+        woff.putInt(0);
+        woff.putInt(0);
+        woff.putInt(0); // no private data
+        woff.putInt(0);
+        woff.put(directory.array());
+        woff.put(data.toByteArray());
+        return woff.array();
+    }
+
+    /**
+     * Reads the codepoint to glyph id mapping from the Unicode BMP
+     * (format 4) subtable.
+     */
+    static SortedMap<Integer, Integer> readCmap(ByteBuffer cmap)
+            throws IOException {
+        int numSubtables = cmap.getShort(2) & 0xffff;
+        for (int i = 0; i < numSubtables; i++) {
+            int platform = cmap.getShort(4 + i * 8) & 0xffff;
+            int encoding = cmap.getShort(6 + i * 8) & 0xffff;
+            int offset = cmap.getInt(8 + i * 8);
+            if ((platform == 3 && encoding == 1 || platform == 0)
+                    && cmap.getShort(offset) == 4) {
+                return readCmapFormat4(cmap, offset);
+            }
+        }
+        throw new IOException("No Unicode BMP cmap subtable");
+    }
+
+    private static SortedMap<Integer, Integer> readCmapFormat4(
+            ByteBuffer cmap, int offset) {
+        SortedMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+        int segCount = (cmap.getShort(offset + 6) & 0xffff) / 2;
+        int endCodes = offset + 14;
+        int startCodes = endCodes + segCount * 2 + 2;
+        int idDeltas = startCodes + segCount * 2;
+        int idRangeOffsets = idDeltas + segCount * 2;
+        for (int seg = 0; seg < segCount; seg++) {
+            int end = cmap.getShort(endCodes + seg * 2) & 0xffff;
+            int start = cmap.getShort(startCodes + seg * 2) & 0xffff;
+            int delta = cmap.getShort(idDeltas + seg * 2);
+            int rangeOffset = cmap.getShort(idRangeOffsets + seg * 2) & 0xffff;
+            for (int c = start; c <= end && c != 0xffff; c++) {
+                int gid;
+                if (rangeOffset == 0) {
+                    gid = (c + delta) & 0xffff;
+                } else {
+                    int glyphIndex = idRangeOffsets + seg * 2 + rangeOffset
+                            + (c - start) * 2;
+                    gid = cmap.getShort(glyphIndex) & 0xffff;
+                    if (gid != 0) {
+                        gid = (gid + delta) & 0xffff;
+                    }
+                }
+                if (gid != 0) {
+                    map.put(c, gid);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Writes a cmap with a single format 4 subtable, used for both the
+     * Unicode and the Windows platform.
+     */
+    private static ByteBuffer writeCmap(SortedMap<Integer, Integer> map) {
+        // segments of consecutive codepoints with consecutive glyph ids
+        int[] starts = new int[map.size() + 1];
+        int[] ends = new int[map.size() + 1];
+        int[] deltas = new int[map.size() + 1];
+        int segCount = 0;
+        for (Map.Entry<Integer, Integer> e : map.entrySet()) {
+            int c = e.getKey();
+            int delta = e.getValue() - c;
+            if (segCount > 0 && ends[segCount - 1] == c - 1
+                    && deltas[segCount - 1] == delta) {
+                ends[segCount - 1] = c;
+            } else {
+                starts[segCount] = c;
+                ends[segCount] = c;
+                deltas[segCount] = delta;
+                segCount++;
+            }
+        }
+        starts[segCount] = 0xffff;
+        ends[segCount] = 0xffff;
+        deltas[segCount] = 1;
+        segCount++;
+
+        int subtableLength = 16 + segCount * 8;
+        ByteBuffer cmap = ByteBuffer.allocate(4 + 2 * 8 + subtableLength);
+        cmap.putShort((short) 0);
+        cmap.putShort((short) 2);
+        cmap.putShort((short) 0).putShort((short) 3).putInt(20);
+        cmap.putShort((short) 3).putShort((short) 1).putInt(20);
+        int searchRange = 2 * Integer.highestOneBit(segCount);
+        cmap.putShort((short) 4);
+        cmap.putShort((short) subtableLength);
+        cmap.putShort((short) 0); // language
+        cmap.putShort((short) (segCount * 2));
+        cmap.putShort((short) searchRange);
+        cmap.putShort((short) (Integer.numberOfTrailingZeros(searchRange / 2)));
+        cmap.putShort((short) (segCount * 2 - searchRange));
+        for (int i = 0; i < segCount; i++) {
+            cmap.putShort((short) ends[i]);
+        }
+        cmap.putShort((short) 0); // reserved pad
+        for (int i = 0; i < segCount; i++) {
+            cmap.putShort((short) starts[i]);
+        }
+        for (int i = 0; i < segCount; i++) {
+            cmap.putShort((short) deltas[i]);
+        }
+        for (int i = 0; i < segCount; i++) {
+            cmap.putShort((short) 0); // no idRangeOffset
+        }
+        return cmap;
+    }
+
+    /**
+     * Marks the glyph, and for composite glyphs its components, as kept.
+     */
+    private static void keepGlyph(int gid, boolean[] keep, int[] loca,
+            ByteBuffer glyf) {
+        if (gid >= keep.length || keep[gid]) {
+            return;
+        }
+        keep[gid] = true;
+        int offset = loca[gid];
+        if (loca[gid + 1] == offset || glyf.getShort(offset) >= 0) {
+            // empty or simple glyph
+            return;
+        }
+        int p = offset + 10;
+        int flags;
+        do {
+            flags = glyf.getShort(p) & 0xffff;
+            keepGlyph(glyf.getShort(p + 2) & 0xffff, keep, loca, glyf);
+            p += 4;
+            p += (flags & 0x0001) != 0 ? 4 : 2; // ARG_1_AND_2_ARE_WORDS
+            if ((flags & 0x0008) != 0) { // WE_HAVE_A_SCALE
+                p += 2;
+            } else if ((flags & 0x0040) != 0) { // X_AND_Y_SCALE
+                p += 4;
+            } else if ((flags & 0x0080) != 0) { // TWO_BY_TWO
+                p += 8;
+            }
+        } while ((flags & 0x0020) != 0); // MORE_COMPONENTS
+    }
+
+    static SortedMap<Integer, ByteBuffer> readTables(byte[] font)
+            throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(font);
+        int version = in.getInt(0);
+        if (version != 0x00010000 && version != tag("true")) {
+            throw new IOException("Not a TrueType font");
+        }
+        int numTables = in.getShort(4) & 0xffff;
+        SortedMap<Integer, ByteBuffer> tables = new TreeMap<Integer, ByteBuffer>();
+        for (int i = 0; i < numTables; i++) {
+            int entry = 12 + i * 16;
+            int tag = in.getInt(entry);
+            int offset = in.getInt(entry + 8);
+            int length = in.getInt(entry + 12);
+            if (offset < 0 || length < 0 || offset + length > font.length) {
+                throw new IOException("Table " + tagName(tag)
+                        + " out of bounds");
+            }
+            tables.put(tag, ByteBuffer.wrap(Arrays.copyOfRange(font, offset,
+                    offset + length)));
+        }
+        return tables;
+    }
+
+    private static byte[] writeFont(SortedMap<Integer, ByteBuffer> tables) {
+        int numTables = tables.size();
+        int size = 12 + numTables * 16;
+        for (ByteBuffer table : tables.values()) {
+            size += (table.capacity() + 3) & ~3;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        int searchRange = Integer.highestOneBit(numTables) * 16;
+        out.putInt(0x00010000);
+        out.putShort((short) numTables);
+        out.putShort((short) searchRange);
+        out.putShort((short) Integer.numberOfTrailingZeros(searchRange / 16));
+        out.putShort((short) (numTables * 16 - searchRange));
+        int offset = 12 + numTables * 16;
+        int headOffset = -1;
+        for (Map.Entry<Integer, ByteBuffer> e : tables.entrySet()) {
+            byte[] table = bytes(e.getValue());
+            if (e.getKey() == TAG_HEAD) {
+                headOffset = offset;
+                // checkSumAdjustment is computed over the whole font
+                ByteBuffer.wrap(table).putInt(8, 0);
+            }
+            out.putInt(e.getKey());
+            out.putInt(checksum(table));
+            out.putInt(offset);
+            out.putInt(table.length);
+            int position = out.position();
+            out.position(offset);
+            out.put(table);
+            offset = (offset + table.length + 3) & ~3;
+            out.position(position);
+        }
+        byte[] font = out.array();
+        if (headOffset >= 0) {
+            out.putInt(headOffset + 8, CHECKSUM_MAGIC - checksum(font));
+        }
+        return font;
+    }
+
+    static int checksum(byte[] data) {
+        int sum = 0;
+        int i = 0;
+        for (; i + 4 <= data.length; i += 4) {
+            sum += (data[i] & 0xff) << 24 | (data[i + 1] & 0xff) << 16
+                    | (data[i + 2] & 0xff) << 8 | data[i + 3] & 0xff;
+        }
+        int last = 0;
+        for (int shift = 24; i < data.length; i++, shift -= 8) {
+            last |= (data[i] & 0xff) << shift;
+        }
+        return sum + last;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(),
+                buffer.arrayOffset() + buffer.capacity());
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        return ByteBuffer.wrap(bytes(buffer));
+    }
+
+    private static int tag(String tag) {
+        return tag.charAt(0) << 24 | tag.charAt(1) << 16 | tag.charAt(2) << 8
+                | tag.charAt(3);
+    }
+
+    private static String tagName(int tag) {
+        return new String(new char[] { (char) (tag >>> 24),
+                (char) (tag >>> 16 & 0xff), (char) (tag >>> 8 & 0xff),
+                (char) (tag & 0xff) });
+    }
+}
@@ -0,0 +1,251 @@
+package com.porotype.iconfont.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.porotype.iconfont.AssetManifest;
+
+/**
+ * Command line tool writing production ready Font Awesome assets: every
+ * file gets a content-hashed name, so it can be cached forever, and
+ * precompressed <code>.gz</code> and <code>.deflate</code> copies, so it can
+ * be served compressed without compressing per request.
+ *
+ * <pre>
+ * java com.porotype.iconfont.build.IconAssets --out src/main/resources/font-awesome \
+ *     font-awesome-4.2.0
+ * </pre>
+ * <p>
+ * The input is a directory with the CSS and fonts, e.g the Font Awesome
+ * download or the output of {@link IconSubset}. The font URLs in the CSS are
+ * rewritten to the hashed fonts, and the output gets an
+ * {@link AssetManifest#FILE asset manifest} mapping each original path to
+ * the hashed one, e.g
+ * <code>css/font-awesome.min.css=css/font-awesome.1a2b3c4d.min.css</code>.
+ * Compressed copies are only written if they save at least 10%, so not for
+ * <code>.woff</code> fonts, which are compressed already.
+ * </p>
+ * <p>
+ * Served by {@link com.porotype.iconfont.FontAwesomeServlet} with the output
+ * directory as <code>root</code>, the manifest is used automatically; a front
+ * server serving the precompressed files, e.g nginx
+ * <code>gzip_static</code>, can use
+ * {@link com.porotype.iconfont.FontAwesome#setManifest(AssetManifest)}.
+ * </p>
+ */
+public class IconAssets {
+
+    private static final Pattern URL = Pattern
+            .compile("url\\(\\s*(['\"]?)([^'\")]+)\\1\\s*\\)");
+
+    private static final String[] EXTENSIONS = { ".css", ".woff", ".woff2",
+            ".ttf", ".otf", ".eot", ".svg" };
+
+    private IconAssets() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File out = null;
+        File in = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) {
+                out = new File(args[++i]);
+            } else {
+                in = new File(args[i]);
+            }
+        }
+        if (out == null || in == null || !in.isDirectory()) {
+            System.err.println("Usage: IconAssets --out <dir> <css and fonts dir>");
+            System.exit(1);
+        }
+        List<String> paths = new ArrayList<String>();
+        list(in, "", paths);
+
+        Map<String, String> manifest = new TreeMap<String, String>();
+        // fonts first, so the stylesheets can refer to the hashed names
+        for (String path : paths) {
+            if (!path.endsWith(".css")) {
+                manifest.put(path, write(out, path,
+                        Files.readAllBytes(new File(in, path).toPath())));
+            }
+        }
+        for (String path : paths) {
+            if (path.endsWith(".css")) {
+                String css = new String(Files.readAllBytes(new File(in, path)
+                        .toPath()), "UTF-8");
+                manifest.put(path, write(out, path,
+                        rewrite(css, path, manifest).getBytes("UTF-8")));
+            }
+        }
+
+        StringBuilder file = new StringBuilder(
+                "# Font Awesome assets, written by IconAssets\n");
+        for (Map.Entry<String, String> entry : manifest.entrySet()) {
+            file.append(entry.getKey()).append('=').append(entry.getValue())
+                    .append('\n');
+            System.out.println(entry.getKey() + " -> " + entry.getValue());
+        }
+        IconSubset.write(new File(out, AssetManifest.FILE), file.toString()
+                .getBytes("UTF-8"));
+    }
+
+    /**
+     * Lists the CSS, font and SVG files in the directory, recursively, as
+     * <code>/</code> separated paths.
+     */
+    private static void list(File dir, String prefix, List<String> paths) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                list(file, prefix + file.getName() + "/", paths);
+            } else if (isAsset(file.getName())) {
+                paths.add(prefix + file.getName());
+            }
+        }
+    }
+
+    private static boolean isAsset(String name) {
+        for (String extension : EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the file with its hashed name, and its compressed copies.
+     *
+     * @return the hashed path
+     */
+    static String write(File out, String path, byte[] bytes)
+            throws IOException {
+        String hashed = hashedName(path, IconCss.hash(bytes).substring(0, 8));
+        IconSubset.write(new File(out, hashed), bytes);
+        byte[] gzip = gzip(bytes);
+        if (gzip.length < bytes.length * 9 / 10) {
+            IconSubset.write(new File(out, hashed + ".gz"), gzip);
+        }
+        byte[] deflate = deflate(bytes);
+        if (deflate.length < bytes.length * 9 / 10) {
+            IconSubset.write(new File(out, hashed + ".deflate"), deflate);
+        }
+        return hashed;
+    }
+
+    /**
+     * Inserts the hash before the first dot of the file name, e.g
+     * <code>css/font-awesome.1a2b3c4d.min.css</code>, as {@link IconCss}
+     * does.
+     */
+    static String hashedName(String path, String hash) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.indexOf('.', slash + 1);
+        if (dot < 0) {
+            return path + "." + hash;
+        }
+        return path.substring(0, dot) + "." + hash + path.substring(dot);
+    }
+
+    /**
+     * Rewrites the <code>url()</code>s in the CSS that refer to files in the
+     * manifest to the hashed files. The version query, e.g
+     * <code>?v=4.2.0</code>, is dropped; fragments, and the empty query of
+     * the IE <code>?#iefix</code> hack, are kept.
+     *
+     * @param css
+     * @param path
+     *            the path of the CSS, which the URLs are relative to
+     * @param manifest
+     *            the hashed paths, by path
+     * @return the rewritten CSS
+     */
+    static String rewrite(String css, String path, Map<String, String> manifest) {
+        URI base = URI.create(path);
+        Matcher matcher = URL.matcher(css);
+        StringBuffer result = new StringBuffer(css.length());
+        while (matcher.find()) {
+            String url = matcher.group(2).trim();
+            int end = url.length();
+            int fragment = url.indexOf('#');
+            if (fragment >= 0) {
+                end = fragment;
+            }
+            int query = url.indexOf('?');
+            if (query >= 0 && query < end) {
+                end = query;
+            }
+            String hashed = null;
+            if (!url.contains(":") && !url.startsWith("/")) {
+                hashed = manifest.get(base.resolve(url.substring(0, end))
+                        .getPath());
+            }
+            String replacement = matcher.group();
+            if (hashed != null) {
+                String file = url.substring(0, end);
+                String suffix = url.substring(end);
+                if (suffix.startsWith("?") && !suffix.startsWith("?#")) {
+                    suffix = fragment >= 0 ? url.substring(fragment) : "";
+                }
+                replacement = "url(" + matcher.group(1)
+                        + file.substring(0, file.lastIndexOf('/') + 1)
+                        + hashed.substring(hashed.lastIndexOf('/') + 1)
+                        + suffix + matcher.group(1) + ")";
+            }
+            matcher.appendReplacement(result,
+                    Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Gzips with the best compression.
+     */
+    static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                bytes.length / 2);
+        GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        };
+        gzip.write(bytes);
+        gzip.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Compresses with the best compression in the zlib format, which is what
+     * the <code>deflate</code> content encoding means.
+     */
+    static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                bytes.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            DeflaterOutputStream deflate = new DeflaterOutputStream(out,
+                    deflater);
+            deflate.write(bytes);
+            deflate.close();
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,219 @@
+package com.porotype.iconfont.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+
+/**
+ * Generates minified Font Awesome CSS with only the rules for the given
+ * {@link Icon}s and {@link IconVariant}s.
+ * <p>
+ * As a command line tool, writes a content-hashed CSS file for the icons and
+ * variants used by the given classes and usage manifests (see
+ * {@link IconUsageScanner}), and prints its name:
+ * </p>
+ * 
+ * <pre>
+ * java com.porotype.iconfont.build.IconCss --out WebContent/VAADIN/themes/mytheme/font-awesome/css \
+ *     [--font-url ../fonts/fontawesome-webfont] [--allow usage.txt] build/classes
+ * </pre>
+ * <p>
+ * The result is a regular stylesheet:
+ * <code>FontAwesome.load(new ThemeResource("font-awesome/css/font-awesome.1a2b3c4d.min.css"))</code>
+ * </p>
+ */
+public class IconCss {
+
+    private static final String HEADER = "/*!\n"
+            + " *  Font Awesome 4.2.0 by @davegandy - http://fontawesome.io - @fontawesome\n"
+            + " *  License - http://fontawesome.io/license (Font: SIL OFL 1.1, CSS: MIT License)\n"
+            + " */";
+
+    private static final String BASE = ".fa{display:inline-block;font:normal normal normal 14px/1 FontAwesome;font-size:inherit;text-rendering:auto;-webkit-font-smoothing:antialiased;-moz-osx-font-smoothing:grayscale}";
+
+    private static final String DEFAULT_FONT_URL = "../fonts/"
+            + IconSubset.FONT_NAME;
+
+    /**
+     * The utility rules of each variant
+     */
+    private static final Map<IconVariant, String> VARIANTS = new EnumMap<IconVariant, String>(
+            IconVariant.class);
+    static {
+        VARIANTS.put(IconVariant.SIZE_LARGE,
+                ".fa-lg{font-size:1.33333333em;line-height:.75em;vertical-align:-15%}");
+        VARIANTS.put(IconVariant.SIZE_2X, ".fa-2x{font-size:2em}");
+        VARIANTS.put(IconVariant.SIZE_3X, ".fa-3x{font-size:3em}");
+        VARIANTS.put(IconVariant.SIZE_4X, ".fa-4x{font-size:4em}");
+        VARIANTS.put(IconVariant.SIZE_5X, ".fa-5x{font-size:5em}");
+        VARIANTS.put(IconVariant.FIXED_WIDTH,
+                ".fa-fw{width:1.28571429em;text-align:center}");
+        VARIANTS.put(
+                IconVariant.LIST,
+                ".fa-ul{padding-left:0;margin-left:2.14285714em;list-style-type:none}.fa-ul>li{position:relative}.fa-li{position:absolute;left:-2.14285714em;width:2.14285714em;top:.14285714em;text-align:center}.fa-li.fa-lg{left:-1.85714286em}");
+        VARIANTS.put(IconVariant.BORDER,
+                ".fa-border{padding:.2em .25em .15em;border:solid .08em #eee;border-radius:.1em}");
+        VARIANTS.put(IconVariant.PULL_RIGHT,
+                ".pull-right{float:right}.fa.pull-right{margin-left:.3em}");
+        VARIANTS.put(IconVariant.PULL_LEFT,
+                ".pull-left{float:left}.fa.pull-left{margin-right:.3em}");
+        VARIANTS.put(
+                IconVariant.SPIN,
+                ".fa-spin{-webkit-animation:fa-spin 2s infinite linear;animation:fa-spin 2s infinite linear}@-webkit-keyframes fa-spin{0%{-webkit-transform:rotate(0deg);transform:rotate(0deg)}100%{-webkit-transform:rotate(359deg);transform:rotate(359deg)}}@keyframes fa-spin{0%{-webkit-transform:rotate(0deg);transform:rotate(0deg)}100%{-webkit-transform:rotate(359deg);transform:rotate(359deg)}}");
+        VARIANTS.put(
+                IconVariant.ROTATE_90,
+                ".fa-rotate-90{filter:progid:DXImageTransform.Microsoft.BasicImage(rotation=1);-webkit-transform:rotate(90deg);-ms-transform:rotate(90deg);transform:rotate(90deg)}:root .fa-rotate-90{filter:none}");
+        VARIANTS.put(
+                IconVariant.ROTATE_180,
+                ".fa-rotate-180{filter:progid:DXImageTransform.Microsoft.BasicImage(rotation=2);-webkit-transform:rotate(180deg);-ms-transform:rotate(180deg);transform:rotate(180deg)}:root .fa-rotate-180{filter:none}");
+        VARIANTS.put(
+                IconVariant.ROTATE_270,
+                ".fa-rotate-270{filter:progid:DXImageTransform.Microsoft.BasicImage(rotation=3);-webkit-transform:rotate(270deg);-ms-transform:rotate(270deg);transform:rotate(270deg)}:root .fa-rotate-270{filter:none}");
+        VARIANTS.put(
+                IconVariant.FLIP_HORIZONTAL,
+                ".fa-flip-horizontal{filter:progid:DXImageTransform.Microsoft.BasicImage(rotation=0, mirror=1);-webkit-transform:scale(-1, 1);-ms-transform:scale(-1, 1);transform:scale(-1, 1)}:root .fa-flip-horizontal{filter:none}");
+        VARIANTS.put(
+                IconVariant.FLIP_VERTICAL,
+                ".fa-flip-vertical{filter:progid:DXImageTransform.Microsoft.BasicImage(rotation=2, mirror=1);-webkit-transform:scale(1, -1);-ms-transform:scale(1, -1);transform:scale(1, -1)}:root .fa-flip-vertical{filter:none}");
+        VARIANTS.put(IconVariant.STACK,
+                ".fa-stack{position:relative;display:inline-block;width:2em;height:2em;line-height:2em;vertical-align:middle}");
+        VARIANTS.put(IconVariant.STACK_1X,
+                ".fa-stack-1x{position:absolute;left:0;width:100%;text-align:center;line-height:inherit}");
+        VARIANTS.put(IconVariant.STACK_2X,
+                ".fa-stack-2x{position:absolute;left:0;width:100%;text-align:center;font-size:2em}");
+        VARIANTS.put(IconVariant.INVERSE, ".fa-inverse{color:#fff}");
+    }
+
+    private IconCss() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File out = null;
+        String fontUrl = DEFAULT_FONT_URL;
+        IconUsageScanner scanner = new IconUsageScanner();
+        List<File> inputs = new ArrayList<File>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) {
+                out = new File(args[++i]);
+            } else if ("--font-url".equals(args[i]) && i + 1 < args.length) {
+                fontUrl = args[++i];
+            } else if ("--allow".equals(args[i]) && i + 1 < args.length) {
+                scanner.allow(new File(args[++i]));
+            } else {
+                inputs.add(new File(args[i]));
+            }
+        }
+        if (out == null || inputs.isEmpty() && scanner.getIcons().isEmpty()) {
+            System.err
+                    .println("Usage: IconCss --out <dir> [--font-url <url>] [--allow <file>] <classes dir|jar>...");
+            System.exit(1);
+        }
+        for (File input : inputs) {
+            scanner.scan(input);
+        }
+        byte[] css = css(scanner.getIcons(), scanner.getVariants(), fontUrl)
+                .getBytes("UTF-8");
+        File file = new File(out, "font-awesome." + hash(css).substring(0, 8)
+                + ".min.css");
+        IconSubset.write(file, css);
+        System.out.println(file.getName());
+    }
+
+    /**
+     * Generates the CSS for the given icons, with all variants, and a
+     * <code>@font-face</code> loading the font from the given location.
+     * 
+     * @param icons
+     * @param fontUrl
+     *            font URL, relative to the CSS, without the file extension,
+     *            e.g <code>../fonts/fontawesome-webfont</code>; the
+     *            <code>.woff</code> and <code>.ttf</code> fonts are used
+     * @return minified CSS
+     */
+    public static String css(Set<Icon> icons, String fontUrl) {
+        return css(icons, EnumSet.allOf(IconVariant.class), fontUrl);
+    }
+
+    /**
+     * Generates the CSS for the given icons and variants, with a
+     * <code>@font-face</code> loading the font from the given location.
+     * 
+     * @param icons
+     * @param variants
+     * @param fontUrl
+     *            font URL, relative to the CSS, without the file extension,
+     *            e.g <code>../fonts/fontawesome-webfont</code>; the
+     *            <code>.woff</code> and <code>.ttf</code> fonts are used
+     * @return minified CSS
+     */
+    public static String css(Set<Icon> icons, Set<IconVariant> variants,
+            String fontUrl) {
+        StringBuilder css = new StringBuilder(HEADER);
+        css.append("@font-face{font-family:'FontAwesome';src:url('")
+                .append(fontUrl).append(".woff') format('woff'),url('")
+                .append(fontUrl)
+                .append(".ttf') format('truetype');font-weight:normal;font-style:normal}");
+        css.append(BASE);
+        for (IconVariant variant : variants) {
+            css.append(VARIANTS.get(variant));
+        }
+        appendIconRules(css, icons);
+        return css.toString();
+    }
+
+    /**
+     * Appends one <code>:before</code> rule per codepoint, with the aliases
+     * as a selector group.
+     */
+    static void appendIconRules(StringBuilder css, Set<Icon> icons) {
+        Map<Integer, List<Icon>> byCodepoint = new LinkedHashMap<Integer, List<Icon>>();
+        for (Icon icon : icons) {
+            List<Icon> aliases = byCodepoint.get(icon.codepoint());
+            if (aliases == null) {
+                aliases = new ArrayList<Icon>();
+                byCodepoint.put(icon.codepoint(), aliases);
+            }
+            aliases.add(icon);
+        }
+        for (List<Icon> aliases : byCodepoint.values()) {
+            for (int i = 0; i < aliases.size(); i++) {
+                if (i > 0) {
+                    css.append(',');
+                }
+                css.append(".fa-").append(aliases.get(i).cssName())
+                        .append(":before");
+            }
+            css.append("{content:\"\\")
+                    .append(Integer.toHexString(aliases.get(0).codepoint()))
+                    .append("\"}");
+        }
+    }
+
+    /**
+     * SHA-1 of the given bytes, as hex.
+     */
+    static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(
+                        Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
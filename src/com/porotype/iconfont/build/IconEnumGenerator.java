@@ -0,0 +1,155 @@
+package com.porotype.iconfont.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Command line tool generating the {@link com.porotype.iconfont.FontAwesome.Icon}
+ * constants from the upstream Font Awesome CSS.
+ *
+ * <pre>
+ * java com.porotype.iconfont.build.IconEnumGenerator font-awesome.css \
+ *     src/com/porotype/iconfont/FontAwesome.java
+ * </pre>
+ * <p>
+ * Replaces the constants in the given source, in stylesheet order, with the
+ * codepoint of each icon, and updates the version in the
+ * {@link com.porotype.iconfont.FontAwesome#CDN} URL. The enum derives the CSS
+ * name from the constant name: dashes become underscores, Java reserved words
+ * get a <code>_FI</code> suffix and names not starting with a letter a
+ * <code>_</code> prefix. The generator does not depend on the enum, so it runs
+ * even on a source that does not compile.
+ * </p>
+ */
+public class IconEnumGenerator {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final Pattern VERSION = Pattern
+            .compile("Font Awesome (\\d+\\.\\d+\\.\\d+)");
+
+    /** <code>.fa-glass:before,.fa-x:before{content:"\f000"}</code> */
+    private static final Pattern RULE = Pattern
+            .compile("((?:\\.fa-[a-z0-9-]+:before\\s*,?\\s*)+)\\{\\s*content:\\s*\"\\\\([0-9a-fA-F]+)\"");
+
+    private static final Pattern SELECTOR = Pattern
+            .compile("\\.fa-([a-z0-9-]+):before");
+
+    private static final Pattern CDN_VERSION = Pattern
+            .compile("(font-awesome/)\\d+\\.\\d+\\.\\d+(/)");
+
+    private static final String ENUM_START = "    public enum Icon {\n";
+
+    private static final Set<String> RESERVED = new HashSet<String>(
+            Arrays.asList("abstract", "assert", "boolean", "break", "byte",
+                    "case", "catch", "char", "class", "const", "continue",
+                    "default", "do", "double", "else", "enum", "extends",
+                    "false", "final", "finally", "float", "for", "goto", "if",
+                    "implements", "import", "instanceof", "int", "interface",
+                    "long", "native", "new", "null", "package", "private",
+                    "protected", "public", "return", "short", "static",
+                    "strictfp", "super", "switch", "synchronized", "this",
+                    "throw", "throws", "transient", "true", "try", "void",
+                    "volatile", "while"));
+
+    private IconEnumGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err
+                    .println("Usage: IconEnumGenerator <font-awesome.css> <FontAwesome.java>");
+            System.exit(1);
+        }
+        String css = new String(Files.readAllBytes(new File(args[0]).toPath()),
+                UTF8);
+        File source = new File(args[1]);
+        String java = new String(Files.readAllBytes(source.toPath()), UTF8);
+        Map<String, Integer> icons = parse(css);
+        Matcher version = VERSION.matcher(css);
+        if (!version.find()) {
+            throw new IOException("No Font Awesome version in " + args[0]);
+        }
+        java = generate(java, icons, version.group(1));
+        Files.write(source.toPath(), java.getBytes(UTF8));
+        System.out.println(icons.size() + " icons, Font Awesome "
+                + version.group(1));
+    }
+
+    /**
+     * Parses the icon rules of a Font Awesome stylesheet.
+     *
+     * @param css
+     * @return CSS name to codepoint, in stylesheet order
+     */
+    static Map<String, Integer> parse(String css) {
+        Map<String, Integer> icons = new LinkedHashMap<String, Integer>();
+        Matcher rule = RULE.matcher(css);
+        while (rule.find()) {
+            int codepoint = Integer.parseInt(rule.group(2), 16);
+            Matcher selector = SELECTOR.matcher(rule.group(1));
+            while (selector.find()) {
+                icons.put(selector.group(1), codepoint);
+            }
+        }
+        return icons;
+    }
+
+    /**
+     * Replaces the constants of the Icon enum in the given source.
+     */
+    static String generate(String java, Map<String, Integer> icons,
+            String version) throws IOException {
+        int start = java.indexOf(ENUM_START);
+        if (start < 0) {
+            throw new IOException("No Icon enum found");
+        }
+        start += ENUM_START.length();
+        int end = java.indexOf(");\n", start);
+        if (end < 0) {
+            throw new IOException("No Icon constants found");
+        }
+        end += 3;
+
+        StringBuilder constants = new StringBuilder();
+        constants.append("    \t// Generated by IconEnumGenerator from Font Awesome ")
+                .append(version).append(", do not edit\n");
+        List<String> lines = new ArrayList<String>(icons.size());
+        for (Map.Entry<String, Integer> icon : icons.entrySet()) {
+            lines.add(constant(icon.getKey(), icon.getValue()));
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            constants.append("    \t").append(lines.get(i))
+                    .append(i < lines.size() - 1 ? ",\n" : ";\n");
+        }
+
+        String generated = java.substring(0, start) + constants
+                + java.substring(end);
+        return CDN_VERSION.matcher(generated).replaceFirst(
+                "$1" + version + "$2");
+    }
+
+    /**
+     * <code>glass(0xf000)</code>
+     */
+    private static String constant(String cssName, int codepoint) {
+        String name = cssName.replace('-', '_');
+        if (RESERVED.contains(name)) {
+            name += "_FI";
+        } else if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+            name = "_" + name;
+        }
+        return name + "(0x" + Integer.toHexString(codepoint) + ")";
+    }
+}
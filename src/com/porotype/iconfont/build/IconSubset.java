@@ -0,0 +1,119 @@
+package com.porotype.iconfont.build;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.IconSprite;
+
+/**
+ * Command line tool creating a Font Awesome subset with only the icons used
+ * by an application.
+ * 
+ * <pre>
+ * java com.porotype.iconfont.build.IconSubset --font fontawesome-webfont.ttf \
+ *     --out WebContent/VAADIN/themes/mytheme/font-awesome [--allow icons.txt] \
+ *     build/classes [lib/app.jar ...]
+ * </pre>
+ * <p>
+ * Writes <code>fonts/fontawesome-webfont.ttf</code>,
+ * <code>fonts/fontawesome-webfont.woff</code>,
+ * <code>css/font-awesome.min.css</code> and an {@link IconSprite} in
+ * <code>sprite.svg</code> to the output directory, to be loaded
+ * with e.g
+ * <code>FontAwesome.load(new ThemeResource("font-awesome/css/font-awesome.min.css"))</code>
+ * .
+ * </p>
+ * 
+ * @see IconUsageScanner
+ */
+public class IconSubset {
+
+    static final String FONT_NAME = "fontawesome-webfont";
+
+    public static void main(String[] args) throws IOException {
+        File font = null;
+        File out = null;
+        IconUsageScanner scanner = new IconUsageScanner();
+        List<File> inputs = new ArrayList<File>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--font".equals(args[i]) && i + 1 < args.length) {
+                font = new File(args[++i]);
+            } else if ("--out".equals(args[i]) && i + 1 < args.length) {
+                out = new File(args[++i]);
+            } else if ("--allow".equals(args[i]) && i + 1 < args.length) {
+                scanner.allow(new File(args[++i]));
+            } else {
+                inputs.add(new File(args[i]));
+            }
+        }
+        if (font == null || out == null || inputs.isEmpty()
+                && scanner.getIcons().isEmpty()) {
+            System.err
+                    .println("Usage: IconSubset --font <ttf> --out <dir> [--allow <file>] <classes dir|jar>...");
+            System.exit(1);
+        }
+        for (File input : inputs) {
+            scanner.scan(input);
+        }
+        Set<Icon> icons = scanner.getIcons();
+
+        byte[] ttf = subset(Files.readAllBytes(font.toPath()), icons);
+        write(new File(out, "fonts/" + FONT_NAME + ".ttf"), ttf);
+        write(new File(out, "fonts/" + FONT_NAME + ".woff"),
+                FontSubsetter.toWoff(ttf));
+        write(new File(out, "css/font-awesome.min.css"),
+                IconCss.css(icons, scanner.getVariants(), "../fonts/" + FONT_NAME)
+                        .getBytes("UTF-8"));
+        write(new File(out, "sprite.svg"), IconSprite.svg(font(ttf), icons)
+                .getBytes("UTF-8"));
+        System.out.println(icons.size() + " of " + Icon.values().length
+                + " icons, " + ttf.length + " of " + font.length()
+                + " bytes");
+    }
+
+    /**
+     * Subsets the given TrueType font to the given icons.
+     * 
+     * @param ttf
+     * @param icons
+     * @return the subset font
+     * @throws IOException
+     */
+    public static byte[] subset(byte[] ttf, Set<Icon> icons) throws IOException {
+        Set<Integer> codepoints = new TreeSet<Integer>();
+        for (Icon icon : icons) {
+            codepoints.add(icon.codepoint());
+        }
+        return FontSubsetter.subset(ttf, codepoints);
+    }
+
+    private static Font font(byte[] ttf) throws IOException {
+        try {
+            return Font.createFont(Font.TRUETYPE_FONT,
+                    new ByteArrayInputStream(ttf));
+        } catch (FontFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static void write(File file, byte[] data) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+}
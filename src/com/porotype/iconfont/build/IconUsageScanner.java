@@ -0,0 +1,284 @@
+package com.porotype.iconfont.build;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.porotype.iconfont.FontAwesome;
+import com.porotype.iconfont.FontAwesome.Icon;
+import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.porotype.iconfont.IconStack;
+
+/**
+ * Finds the {@link Icon}s and {@link IconVariant}s used by an application, by
+ * scanning compiled classes for references to their constants.
+ * <p>
+ * Icons that are only resolved at runtime, e.g via {@link Icon#values()} or
+ * {@link FontAwesome#byName(CharSequence)}, can not be found this way, and
+ * should be listed in an allow-list file; one Java or CSS icon or variant
+ * name per line, <code>#</code> starts a comment. An
+ * {@link com.porotype.iconfont.IconUsage.Snapshot} written with
+ * <code>writeTo</code> is a valid allow-list, including the variant
+ * stylenames in its comments.
+ * </p>
+ */
+public class IconUsageScanner {
+
+    private static final String ICON_CLASS = Icon.class.getName().replace(
+            '.', '/');
+    private static final String ICON_DESCRIPTOR = "L" + ICON_CLASS + ";";
+    private static final String VARIANT_CLASS = IconVariant.class.getName()
+            .replace('.', '/');
+    private static final String VARIANT_DESCRIPTOR = "L" + VARIANT_CLASS
+            + ";";
+    private static final String STACK_CLASS = IconStack.class.getName()
+            .replace('.', '/');
+    /**
+     * Package of this library, whose classes, e.g IconCss and IconStack,
+     * refer to every variant
+     */
+    private static final String LIBRARY_PACKAGE = Icon.class.getPackage()
+            .getName().replace('.', '/') + "/";
+
+    private final Set<Icon> icons = EnumSet.noneOf(Icon.class);
+    private final Set<IconVariant> variants = EnumSet
+            .noneOf(IconVariant.class);
+
+    /**
+     * Gets the icons found so far.
+     * 
+     * @return the icons
+     */
+    public Set<Icon> getIcons() {
+        return icons;
+    }
+
+    /**
+     * Gets the variants found so far.
+     * 
+     * @return the variants
+     */
+    public Set<IconVariant> getVariants() {
+        return variants;
+    }
+
+    /**
+     * Scans a class file, a directory of class files, or a jar.
+     * 
+     * @param file
+     * @return this scanner
+     * @throws IOException
+     */
+    public IconUsageScanner scan(File file) throws IOException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    scan(child);
+                }
+            }
+        } else if (file.getName().endsWith(".class")) {
+            InputStream in = new FileInputStream(file);
+            try {
+                scanClass(in);
+            } finally {
+                in.close();
+            }
+        } else if (file.getName().endsWith(".jar")
+                || file.getName().endsWith(".war")) {
+            ZipFile zip = new ZipFile(file);
+            try {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(".class")) {
+                        InputStream in = zip.getInputStream(entry);
+                        try {
+                            scanClass(in);
+                        } finally {
+                            in.close();
+                        }
+                    }
+                }
+            } finally {
+                zip.close();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the icons listed in the given allow-list file.
+     * 
+     * @param allowList
+     * @return this scanner
+     * @throws IOException
+     * @throws IllegalArgumentException
+     *             if the file contains an unknown icon name
+     */
+    public IconUsageScanner allow(File allowList) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(allowList), "UTF-8"));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String name = (comment < 0 ? line : line.substring(0, comment))
+                        .trim();
+                if (comment >= 0) {
+                    // usage snapshot: # count variant-stylenames
+                    for (String word : line.substring(comment + 1).trim()
+                            .split("\\s+")) {
+                        IconVariant variant = variant(word);
+                        if (variant != null) {
+                            variants.add(variant);
+                        }
+                    }
+                }
+                if (name.isEmpty()) {
+                    continue;
+                }
+                Icon icon = FontAwesome.byName(name);
+                if (icon == null) {
+                    icon = FontAwesome.byStylename(name);
+                }
+                if (icon != null) {
+                    icons.add(icon);
+                } else if (variant(name) != null) {
+                    variants.add(variant(name));
+                } else {
+                    throw new IllegalArgumentException("Unknown icon '" + name
+                            + "' at " + allowList + ":" + lineNumber);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return this;
+    }
+
+    /**
+     * Finds the variant by name (<code>SPIN</code>) or stylename (
+     * <code>fa-spin</code>).
+     */
+    private static IconVariant variant(String name) {
+        for (IconVariant variant : IconVariant.values()) {
+            if (variant.name().equals(name)
+                    || variant.toString().equals(name)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the {@link Icon} and {@link IconVariant} constants referenced from the constant pool of the
+     * given class file.
+     */
+    void scanClass(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                classFile));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor
+        in.readUnsignedShort(); // major
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNames = new int[count];
+        int[] fieldClasses = new int[count];
+        int[] fieldNameAndTypes = new int[count];
+        int[] names = new int[count];
+        int[] descriptors = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+            case 1: // Utf8
+                utf8[i] = in.readUTF();
+                break;
+            case 7: // Class
+                classNames[i] = in.readUnsignedShort();
+                break;
+            case 9: // Fieldref
+                fieldClasses[i] = in.readUnsignedShort();
+                fieldNameAndTypes[i] = in.readUnsignedShort();
+                break;
+            case 12: // NameAndType
+                names[i] = in.readUnsignedShort();
+                descriptors[i] = in.readUnsignedShort();
+                break;
+            case 5: // Long
+            case 6: // Double
+                in.readLong();
+                i++;
+                break;
+            case 3: // Integer
+            case 4: // Float
+            case 10: // Methodref
+            case 11: // InterfaceMethodref
+            case 17: // Dynamic
+            case 18: // InvokeDynamic
+                in.readInt();
+                break;
+            case 15: // MethodHandle
+                in.readUnsignedByte();
+                in.readUnsignedShort();
+                break;
+            case 8: // String
+            case 16: // MethodType
+            case 19: // Module
+            case 20: // Package
+                in.readUnsignedShort();
+                break;
+            default:
+                throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        in.readUnsignedShort(); // access flags
+        String thisClass = utf8[classNames[in.readUnsignedShort()]];
+        if (thisClass.startsWith(LIBRARY_PACKAGE)) {
+            // the enums themselves, and the rest of this library, e.g when
+            // scanning a war that bundles it
+            return;
+        }
+        for (int i = 1; i < count; i++) {
+            if (classNames[i] != 0 && STACK_CLASS.equals(utf8[classNames[i]])) {
+                // the stack variants are referenced by IconStack itself
+                variants.add(IconVariant.STACK);
+                variants.add(IconVariant.STACK_1X);
+                variants.add(IconVariant.STACK_2X);
+            }
+            if (fieldClasses[i] == 0) {
+                continue;
+            }
+            String fieldClass = utf8[classNames[fieldClasses[i]]];
+            int nameAndType = fieldNameAndTypes[i];
+            if (VARIANT_CLASS.equals(fieldClass)
+                    && VARIANT_DESCRIPTOR.equals(utf8[descriptors[nameAndType]])) {
+                IconVariant variant = variant(utf8[names[nameAndType]]);
+                if (variant != null) {
+                    variants.add(variant);
+                }
+            } else if (ICON_CLASS.equals(fieldClass)
+                    && ICON_DESCRIPTOR.equals(utf8[descriptors[nameAndType]])) {
+                // null if compiled against another Font Awesome version
+                Icon icon = FontAwesome.byName(utf8[names[nameAndType]]);
+                if (icon != null) {
+                    icons.add(icon);
+                }
+            }
+        }
+    }
+}
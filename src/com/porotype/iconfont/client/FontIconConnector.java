@@ -0,0 +1,32 @@
+package com.porotype.iconfont.client;
+
+import com.porotype.iconfont.FontIcon;
+import com.porotype.iconfont.shared.FontIconState;
+import com.vaadin.client.communication.StateChangeEvent;
+import com.vaadin.client.ui.AbstractComponentConnector;
+import com.vaadin.shared.ui.Connect;
+
+/**
+ * Connector for {@link FontIcon}, updating the {@link FontIconWidget} from the
+ * codepoint and variants in the state.
+ */
+@SuppressWarnings("serial")
+@Connect(FontIcon.class)
+public class FontIconConnector extends AbstractComponentConnector {
+
+    @Override
+    public FontIconWidget getWidget() {
+        return (FontIconWidget) super.getWidget();
+    }
+
+    @Override
+    public FontIconState getState() {
+        return (FontIconState) super.getState();
+    }
+
+    @Override
+    public void onStateChanged(StateChangeEvent stateChangeEvent) {
+        super.onStateChanged(stateChangeEvent);
+        getWidget().setIcon(getState().codepoint, getState().variants);
+    }
+}
@@ -0,0 +1,54 @@
+package com.porotype.iconfont.client;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.Widget;
+import com.porotype.iconfont.shared.IconVariantStyles;
+
+/**
+ * Client side widget of {@link com.porotype.iconfont.FontIcon}: a
+ * <code>span</code> with an <code>&lt;i class="fa ..."&gt;</code> holding the
+ * glyph, built directly in the DOM.
+ */
+public class FontIconWidget extends Widget {
+
+    public static final String CLASSNAME = "v-fonticon";
+
+    private final Element icon = Document.get().createElement("i");
+    private int codepoint = -1;
+    private int variants = -1;
+
+    public FontIconWidget() {
+        setElement(Document.get().createSpanElement());
+        setStyleName(CLASSNAME);
+        getElement().appendChild(icon);
+    }
+
+    /**
+     * Shows the icon with the given variants, touching the DOM only for what
+     * changed.
+     *
+     * @param codepoint
+     *            the icon codepoint, or 0 for none
+     * @param variants
+     *            variant bitmask
+     */
+    public void setIcon(int codepoint, int variants) {
+        if (variants != this.variants) {
+            StringBuilder classes = new StringBuilder("fa");
+            for (int i = 0; i < IconVariantStyles.count(); i++) {
+                if ((variants & 1 << i) != 0) {
+                    classes.append(' ').append(IconVariantStyles.get(i));
+                }
+            }
+            icon.setClassName(classes.toString());
+            this.variants = variants;
+        }
+        if (codepoint != this.codepoint) {
+            // the glyph in the FontAwesome font of .fa, no per-icon class
+            icon.setInnerText(codepoint == 0 ? "" : String
+                    .valueOf((char) codepoint));
+            this.codepoint = codepoint;
+        }
+    }
+}
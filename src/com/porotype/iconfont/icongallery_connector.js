@@ -0,0 +1,170 @@
+/*
+ * Client side of com.porotype.iconfont.IconGallery; renders only the rows
+ * scrolled into view, fetching them from the server a page at a time.
+ */
+window.com_porotype_iconfont_IconGallery = function() {
+	var self = this;
+	var element = this.getElement();
+	var requested = {};
+	// bumped on each reset, so late replies for the old rows are dropped
+	var generation = 0;
+
+	element.style.overflow = "auto";
+	element.style.position = "relative";
+	var body = document.createElement("div");
+	body.style.position = "relative";
+	element.appendChild(body);
+
+	if (!document.getElementById("icongallery-style")) {
+		var style = document.createElement("style");
+		style.id = "icongallery-style";
+		style.appendChild(document.createTextNode(
+			".icongallery-row{position:absolute;left:0;right:0;white-space:nowrap;}"
+			+ ".icongallery-cell{display:inline-block;overflow:hidden;"
+			+ "text-overflow:ellipsis;cursor:pointer;box-sizing:border-box;padding:0 4px;}"
+			+ ".icongallery-selected{background:#d6e6f5;}"));
+		document.getElementsByTagName("head")[0].appendChild(style);
+	}
+
+	var fetchVisible = function() {
+		var state = self.getState();
+		if (!state.rows) {
+			return;
+		}
+		var first = Math.floor(element.scrollTop / state.rowHeight);
+		var last = Math.ceil((element.scrollTop + element.clientHeight)
+				/ state.rowHeight);
+		var page = Math.floor(first / state.pageRows);
+		var lastPage = Math.floor(Math.min(last, state.rows - 1) / state.pageRows);
+		for (; page <= lastPage; page++) {
+			if (!requested[page]) {
+				requested[page] = true;
+				self.fetchRows(page * state.pageRows, state.pageRows, generation);
+			}
+		}
+	};
+
+	var updateSelection = function() {
+		var cells = body.getElementsByClassName("icongallery-cell");
+		var selected = "" + self.getState().selected;
+		for (var i = 0; i < cells.length; i++) {
+			var cell = cells[i];
+			var isSelected = cell.getAttribute("data-index") === selected;
+			cell.className = isSelected ? "icongallery-cell icongallery-selected"
+					: "icongallery-cell";
+		}
+	};
+
+	this.setRows = function(replyGeneration, first, html) {
+		if (replyGeneration !== generation) {
+			return;
+		}
+		var state = self.getState();
+		var holder = document.createElement("div");
+		holder.innerHTML = html;
+		var width = (100 / state.columns) + "%";
+		var row = first;
+		while (holder.firstChild) {
+			var rowElement = holder.firstChild;
+			rowElement.style.top = (row++ * state.rowHeight) + "px";
+			rowElement.style.height = state.rowHeight + "px";
+			rowElement.style.lineHeight = state.rowHeight + "px";
+			for (var c = rowElement.firstChild; c; c = c.nextSibling) {
+				c.style.width = width;
+			}
+			body.appendChild(rowElement);
+		}
+		updateSelection();
+	};
+
+	this.onStateChange = function() {
+		var state = self.getState();
+		var height = (state.rows * state.rowHeight) + "px";
+		if (body.style.height !== height) {
+			// layout changed, start over
+			body.style.height = height;
+			body.innerHTML = "";
+			requested = {};
+			generation++;
+		}
+		fetchVisible();
+		// the element may not be laid out yet
+		setTimeout(fetchVisible, 0);
+		updateSelection();
+	};
+
+	var cellOf = function(target) {
+		for (var e = target; e && e !== element; e = e.parentNode) {
+			if (e.getAttribute && e.getAttribute("data-index") !== null) {
+				return e;
+			}
+		}
+		return null;
+	};
+
+	// one HTML tooltip for all icons, styled as a Vaadin tooltip
+	var tooltip = document.createElement("div");
+	tooltip.className = "v-tooltip";
+	tooltip.style.position = "fixed";
+	tooltip.style.zIndex = "20000";
+	tooltip.style.display = "none";
+	var tooltipText = document.createElement("div");
+	tooltipText.className = "v-tooltip-text";
+	tooltip.appendChild(tooltipText);
+	document.body.appendChild(tooltip);
+	var tooltipCell = null;
+	var tooltipTimer = null;
+
+	var hideTooltip = function() {
+		clearTimeout(tooltipTimer);
+		tooltipCell = null;
+		tooltip.style.display = "none";
+	};
+
+	var onScroll = function() {
+		hideTooltip();
+		fetchVisible();
+	};
+
+	element.addEventListener("scroll", onScroll, false);
+	window.addEventListener("resize", fetchVisible, false);
+	// one listener each for all icons
+	element.addEventListener("click", function(event) {
+		var cell = cellOf(event.target);
+		if (cell) {
+			self.select(parseInt(cell.getAttribute("data-index"), 10));
+		}
+	}, false);
+	element.addEventListener("mouseover", function(event) {
+		var cell = cellOf(event.target);
+		if (cell === tooltipCell) {
+			return;
+		}
+		hideTooltip();
+		if (cell) {
+			tooltipCell = cell;
+			var x = event.clientX;
+			var y = event.clientY;
+			tooltipTimer = setTimeout(function() {
+				// the cell is the icon HTML and name
+				tooltipText.innerHTML = cell.innerHTML;
+				tooltip.style.left = (x + 10) + "px";
+				tooltip.style.top = (y + 10) + "px";
+				tooltip.style.display = "";
+			}, 500);
+		}
+	}, false);
+	element.addEventListener("mouseout", function(event) {
+		var to = event.relatedTarget;
+		if (!to || (to !== element && !element.contains(to))) {
+			hideTooltip();
+		}
+	}, false);
+
+	// the element goes with the connector, but window and body stay
+	this.onUnregister = function() {
+		window.removeEventListener("resize", fetchVisible, false);
+		hideTooltip();
+		tooltip.parentNode.removeChild(tooltip);
+	};
+};
@@ -0,0 +1,20 @@
+package com.porotype.iconfont.shared;
+
+import com.vaadin.shared.AbstractComponentState;
+
+/**
+ * Shared state for {@link com.porotype.iconfont.FontIcon}: the icon as a
+ * codepoint and its variants as a bitmask, instead of HTML.
+ */
+@SuppressWarnings("serial")
+public class FontIconState extends AbstractComponentState {
+
+    /**
+     * Unicode codepoint of the icon, or 0 for none
+     */
+    public int codepoint;
+    /**
+     * {@link com.porotype.iconfont.FontAwesome.IconVariant} bitmask
+     */
+    public int variants;
+}
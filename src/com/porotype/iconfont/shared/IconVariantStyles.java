@@ -0,0 +1,38 @@
+package com.porotype.iconfont.shared;
+
+/**
+ * Stylenames of the {@link com.porotype.iconfont.FontAwesome.IconVariant}
+ * bits, in bit order; the one table both the server side enum and the client
+ * side widget use.
+ */
+public final class IconVariantStyles {
+
+    private static final String[] STYLENAMES = { "fa-lg", "fa-2x", "fa-3x",
+            "fa-4x", "fa-5x", "fa-fw", "fa-li", "fa-spin", "fa-border",
+            "pull-left", "pull-right", "fa-rotate-90", "fa-rotate-180",
+            "fa-rotate-270", "fa-flip-horizontal", "fa-flip-vertical",
+            "fa-stack", "fa-stack-1x", "fa-stack-2x", "fa-inverse" };
+
+    private IconVariantStyles() {
+    }
+
+    /**
+     * Gets the number of variants.
+     * 
+     * @return the number of variant bits
+     */
+    public static int count() {
+        return STYLENAMES.length;
+    }
+
+    /**
+     * Gets the stylename of a variant bit, e.g <code>fa-spin</code>.
+     * 
+     * @param bit
+     *            the bit index, from 0 to {@link #count()} - 1
+     * @return the stylename
+     */
+    public static String get(int bit) {
+        return STYLENAMES[bit];
+    }
+}
@@ -3,21 +3,30 @@ package org.vaadin.fonticon;
 import java.util.Arrays;
 import java.util.Set;
 
+import com.porotype.iconfont.CaptionCache;
 import com.porotype.iconfont.FontAwesome;
 import com.porotype.iconfont.FontAwesome.Icon;
 import com.porotype.iconfont.FontAwesome.IconVariant;
+import com.porotype.iconfont.FontIcon;
+import com.porotype.iconfont.FontIconResource;
+import com.porotype.iconfont.IconColumnGenerator;
+import com.porotype.iconfont.IconContainer;
+import com.porotype.iconfont.IconConverter;
+import com.porotype.iconfont.IconGallery;
+import com.porotype.iconfont.IconGallery.IconClickEvent;
+import com.porotype.iconfont.IconGallery.IconClickListener;
 import com.vaadin.data.Property.ValueChangeEvent;
 import com.vaadin.data.Property.ValueChangeListener;
 import com.vaadin.server.VaadinRequest;
-import com.vaadin.shared.ui.MarginInfo;
+import com.vaadin.shared.ui.combobox.FilteringMode;
 import com.vaadin.shared.ui.label.ContentMode;
 import com.vaadin.ui.AbstractSelect;
 import com.vaadin.ui.Button;
 import com.vaadin.ui.ComboBox;
-import com.vaadin.ui.CssLayout;
 import com.vaadin.ui.HorizontalLayout;
 import com.vaadin.ui.Label;
 import com.vaadin.ui.NativeButton;
+import com.vaadin.ui.Table;
 import com.vaadin.ui.TwinColSelect;
 import com.vaadin.ui.UI;
 import com.vaadin.ui.VerticalLayout;
@@ -33,6 +42,8 @@ public class FonticonUI extends UI {
     Label demoLabel;
     Button demoButton;
     NativeButton demoNativeButton;
+    Button demoIconButton;
+    FontIcon demoFontIcon;
 
     @Override
     protected void init(VaadinRequest request) {
@@ -50,8 +61,8 @@ public class FonticonUI extends UI {
                         IconVariant.SIZE_4X)
                         + "This demonstrates some of the use-cases for font icons in Vaadin.<br/>"
                         + Icon.info
-                        + " Please note that a font-icon is not a <code>Resource</code>, and can not be used as a"
-                        + " regular Vaadin icon using <code>setIcon()</code>.<br> Instead, you can add a font-icon anywhere "
+                        + " Please note that a font-icon is not a <code>Resource</code>; for <code>setIcon()</code>,"
+                        + " use a server-rendered <code>FontIconResource</code>.<br> Otherwise, you can add a font-icon anywhere "
                         + Icon.exclamation_triangle
                         + " where you can use formatted HTML, including tooltips.",
                 ContentMode.HTML);
@@ -67,13 +78,10 @@ public class FonticonUI extends UI {
         vl.setStyleName(Reindeer.LAYOUT_BLUE);
         vl.setMargin(true);
         hz.addComponent(vl);
-        final ComboBox icon = new ComboBox("Icon", Arrays.asList(Icon.values())) {
-            @Override
-            public String getItemCaption(Object itemId) {
-                // format the caption in the combobox
-                return ((Icon) itemId).name();
-            }
-        };
+        // searchable, only the visible page of matches is sent
+        final ComboBox icon = new ComboBox("Icon", new IconContainer());
+        icon.setItemCaptionPropertyId(IconContainer.CAPTION);
+        icon.setFilteringMode(FilteringMode.CONTAINS);
         vl.addComponent(icon);
         icon.setNullSelectionAllowed(false);
         icon.setImmediate(true);
@@ -93,6 +101,12 @@ public class FonticonUI extends UI {
         demoNativeButton = new NativeButton();
         demoNativeButton.setHtmlContentAllowed(true); // REMEMBER HtmlAllowed
         vl.addComponent(demoNativeButton);
+        demoIconButton = new Button("setIcon() Button");
+        vl.addComponent(demoIconButton);
+        // codepoint and variants in the state, no HTML
+        demoFontIcon = new FontIcon();
+        demoFontIcon.setCaption("FontIcon component");
+        vl.addComponent(demoFontIcon);
         // listeners
         icon.addValueChangeListener(new ValueChangeListener() {
             @Override
@@ -108,48 +122,59 @@ public class FonticonUI extends UI {
         });
         icon.select(Icon.adjust);
 
-        // ALL the icons
-        final CssLayout icons = new CssLayout();
+        // Icon column, glyphs instead of a component per cell
+        IconConverter<String> status = new IconConverter<String>(String.class)
+                .map("running", Icon.refresh, IconVariant.SPIN)
+                .map("done", Icon.check).map("failed", Icon.times)
+                .setDefault(Icon.question);
+        Table jobs = new Table("Table icon column");
+        jobs.addContainerProperty("name", String.class, null);
+        jobs.addContainerProperty("status", String.class, null);
+        jobs.addItem(new Object[] { "Compile", "done" }, 1);
+        jobs.addItem(new Object[] { "Test", "failed" }, 2);
+        jobs.addItem(new Object[] { "Deploy", "running" }, 3);
+        jobs.addItem(new Object[] { "Celebrate", "pending" }, 4);
+        new IconColumnGenerator<String>("status", status).addTo(jobs, "icon");
+        jobs.setVisibleColumns("icon", "name", "status");
+        jobs.setColumnHeader("icon", "");
+        jobs.setPageLength(0);
+        layout.addComponent(jobs);
+
+        // ALL the icons, one component rendering the rows in view
+        IconGallery icons = new IconGallery();
         icons.setCaption("ALL THE THINGS!!!");
-        layout.addComponent(icons);
-        
-        HorizontalLayout hLayout = new HorizontalLayout();
-        hLayout.setSpacing(true);
-        hLayout.setMargin(new MarginInfo(false, true, false, true));
-        int cols = 8;
-        for (Icon i : Icon.values()) {
-        	if(cols == 8){
-        		hLayout = new HorizontalLayout();
-        		cols = 0;
-        	}
-        	Label b = new Label(i + " " + i.name(), ContentMode.HTML);
-        	hLayout.addComponent(b);
-        	b.setWidth("150px");
-            b.setDescription(i + " " + i.name());
-            if(cols == 7){
-            	layout.addComponent(hLayout);
+        icons.addIconClickListener(new IconClickListener() {
+            @Override
+            public void iconClick(IconClickEvent event) {
+                icon.select(event.getIcon());
             }
-            cols++;
-            
-        }
-        if(cols < 8)
-        	layout.addComponent(hLayout);
-
+        });
+        layout.addComponent(icons);
     }
 
     private void setDemoText(AbstractSelect icon, AbstractSelect variant) {
         Set<IconVariant> variants = (Set<IconVariant>) variant.getValue();
-        String s = ((Icon) icon.getValue()).variant(variants
-                .toArray(new IconVariant[] {}));
+        Icon selected = (Icon) icon.getValue();
+        long mask = IconVariant.mask(variants);
+        String s = selected.variant(mask);
+        // the same captions in every session, shared
+        CaptionCache captions = CaptionCache.get();
 
         demoLabel
                 .setValue(s
                         + " The quick brown fox jumps over the lazy dog.<br/>The quick brown fox jumps over<br/> the lazy dog.");
-        demoLabel.setDescription(s + " Demo tooltip");
-        demoButton.setCaption(s + " Button");
-        demoButton.setDescription(s + " Demo tooltip");
-        demoNativeButton.setCaption(s + " Native Button");
-        demoNativeButton.setDescription(s + " Demo tooltip");
+        demoLabel.setDescription(captions.caption(selected, mask,
+                " Demo tooltip"));
+        demoButton.setCaption(captions.caption(selected, mask, " Button"));
+        demoButton.setDescription(captions.caption(selected, mask,
+                " Demo tooltip"));
+        demoNativeButton.setCaption(captions.caption(selected, mask,
+                " Native Button"));
+        demoNativeButton.setDescription(captions.caption(selected, mask,
+                " Demo tooltip"));
+        demoIconButton.setIcon(FontIconResource.shared(selected, 16, 0x333333));
+        demoFontIcon.setFontIcon(selected);
+        demoFontIcon.setVariants(mask);
     }
 
 }
\ No newline at end of file